@@ -1,13 +1,21 @@
 package com.filipedevs.api;
 
+import com.filipedevs.api.customer.CustomerExportRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class ApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(ApiApplication.class, args);
+		SpringApplication application = new SpringApplication(ApiApplication.class);
+		if (CustomerExportRunner.isExportRequested(args)) {
+			// one-shot export, no need for the embedded web server
+			application.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
+		application.run(args);
 	}
 
 }
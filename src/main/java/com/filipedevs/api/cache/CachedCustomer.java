@@ -0,0 +1,19 @@
+package com.filipedevs.api.cache;
+
+import com.filipedevs.api.customer.Customer;
+
+/**
+ * A cache entry: either a customer or the knowledge that no customer exists for the id (negative caching).
+ */
+public record CachedCustomer(Customer customer) {
+
+    private static final CachedCustomer MISSING = new CachedCustomer(null);
+
+    public static CachedCustomer missing() {
+        return MISSING;
+    }
+
+    public boolean isMissing() {
+        return customer == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.filipedevs.api.cache;
+
+import com.filipedevs.api.customer.Customer;
+
+import java.util.Optional;
+
+/**
+ * Reads fill the cache, writes put their result into it. A fill never replaces a cached entry, so a reader
+ * that loaded a row before a concurrent write cannot overwrite the state that write cached.
+ */
+public interface CustomerCache {
+
+    /**
+     * @return the cached entry, or an empty optional when the id is not cached and the database has to be asked
+     */
+    Optional<CachedCustomer> get(Long id);
+
+    /**
+     * Caches a customer read from the database, unless the id is cached already.
+     */
+    void fill(Customer customer);
+
+    /**
+     * Caches that no customer exists for the id, unless the id is cached already.
+     */
+    void fillMissing(Long id);
+
+    /**
+     * Caches a customer that was just written, replacing the entry on every node.
+     */
+    void put(Customer customer);
+
+    /**
+     * Caches that the customer was just deleted, replacing the entry on every node.
+     */
+    void putMissing(Long id);
+}
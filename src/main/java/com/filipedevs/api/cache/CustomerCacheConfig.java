@@ -0,0 +1,41 @@
+package com.filipedevs.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@EnableConfigurationProperties(CustomerCacheProperties.class)
+public class CustomerCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.cache", name = "enabled", havingValue = "true")
+    public TwoLevelCustomerCache twoLevelCustomerCache(StringRedisTemplate redisTemplate,
+                                                       ObjectMapper objectMapper,
+                                                       CustomerCacheProperties properties) {
+        return new TwoLevelCustomerCache(redisTemplate, objectMapper, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.cache", name = "enabled", havingValue = "true")
+    public RedisMessageListenerContainer customerCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCustomerCache customerCache,
+                                                                           CustomerCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(customerCache, new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.cache", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public NoOpCustomerCache noOpCustomerCache() {
+        return new NoOpCustomerCache();
+    }
+}
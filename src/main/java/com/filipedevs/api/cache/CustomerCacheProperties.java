@@ -0,0 +1,26 @@
+package com.filipedevs.api.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.cache")
+public class CustomerCacheProperties {
+
+    private boolean enabled;
+
+    // the near cache is per node, keep it small and short lived, invalidation messages do the rest
+    private long nearMaximumSize = 10_000;
+
+    private Duration nearTimeToLive = Duration.ofSeconds(30);
+
+    private Duration remoteTimeToLive = Duration.ofMinutes(10);
+
+    private Duration missingTimeToLive = Duration.ofMinutes(1);
+
+    private String keyPrefix = "customer:";
+
+    private String invalidationChannel = "customer:invalidation";
+}
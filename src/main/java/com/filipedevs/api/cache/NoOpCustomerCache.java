@@ -0,0 +1,29 @@
+package com.filipedevs.api.cache;
+
+import com.filipedevs.api.customer.Customer;
+
+import java.util.Optional;
+
+public class NoOpCustomerCache implements CustomerCache {
+
+    @Override
+    public Optional<CachedCustomer> get(Long id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void fill(Customer customer) {
+    }
+
+    @Override
+    public void fillMissing(Long id) {
+    }
+
+    @Override
+    public void put(Customer customer) {
+    }
+
+    @Override
+    public void putMissing(Long id) {
+    }
+}
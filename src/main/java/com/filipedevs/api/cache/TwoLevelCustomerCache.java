@@ -0,0 +1,208 @@
+package com.filipedevs.api.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filipedevs.api.customer.Customer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process near cache in front of a Redis cache shared by all nodes.
+ * <p>
+ * Redis is the reference: writes overwrite the Redis entry with the state they saved and publish the id on the
+ * invalidation channel, every node (this one included) then drops its near cache entry. Reads only fill Redis
+ * with {@code SET NX}, a reader holding a row loaded before a write can therefore not replace what the write
+ * cached. The near cache is only filled when no invalidation of the id arrived while the value was fetched.
+ * <p>
+ * Redis errors and unreadable entries are logged and treated as cache misses, an unavailable cache must not
+ * fail customer reads.
+ */
+@Slf4j
+public class TwoLevelCustomerCache implements CustomerCache, MessageListener {
+
+    // stored in Redis for ids that have no customer, a serialized customer is never empty
+    private static final String MISSING = "";
+
+    private final Cache<Long, CachedCustomer> nearCache;
+
+    // how long an invalidation is remembered, far longer than a Redis call can take with the configured timeout
+    private static final Duration INVALIDATION_MEMORY = Duration.ofMinutes(1);
+
+    // numbers the invalidations, a near cache fill racing with an invalidation of the same id is dropped
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    private final Cache<Long, Long> lastInvalidations = Caffeine.newBuilder()
+            .expireAfterWrite(INVALIDATION_MEMORY)
+            .build();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final CustomerCacheProperties properties;
+
+    public TwoLevelCustomerCache(StringRedisTemplate redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 CustomerCacheProperties properties) {
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(properties.getNearMaximumSize())
+                .expireAfterWrite(properties.getNearTimeToLive())
+                .build();
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<CachedCustomer> get(Long id) {
+        CachedCustomer cached = nearCache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long invalidationsBefore = invalidationSequence.get();
+        String value;
+        try {
+            value = redisTemplate.opsForValue().get(key(id));
+        } catch (RuntimeException e) {
+            log.warn("Could not read customer {} from the remote cache", id, e);
+            return Optional.empty();
+        }
+        if (value == null) {
+            return Optional.empty();
+        }
+
+        if (MISSING.equals(value)) {
+            cached = CachedCustomer.missing();
+        } else {
+            Optional<Customer> customer = deserialize(id, value);
+            if (customer.isEmpty()) {
+                return Optional.empty();
+            }
+            cached = new CachedCustomer(customer.get());
+        }
+        fillNearCache(id, cached, invalidationsBefore);
+        return Optional.of(cached);
+    }
+
+    @Override
+    public void fill(Customer customer) {
+        serialize(customer).ifPresent(value ->
+                fill(customer.getId(), value, new CachedCustomer(customer), properties.getRemoteTimeToLive()));
+    }
+
+    @Override
+    public void fillMissing(Long id) {
+        fill(id, MISSING, CachedCustomer.missing(), properties.getMissingTimeToLive());
+    }
+
+    @Override
+    public void put(Customer customer) {
+        Optional<String> value = serialize(customer);
+        if (value.isPresent()) {
+            put(customer.getId(), value.get(), properties.getRemoteTimeToLive());
+        } else {
+            // an entry that cannot be written must at least not stay stale
+            delete(customer.getId());
+        }
+    }
+
+    @Override
+    public void putMissing(Long id) {
+        put(id, MISSING, properties.getMissingTimeToLive());
+    }
+
+    /**
+     * Receives the invalidation messages published by the writes of any node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String id = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            invalidateNearCache(Long.valueOf(id));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed customer cache invalidation message '{}'", id);
+        }
+    }
+
+    private void fill(Long id, String value, CachedCustomer cached, Duration timeToLive) {
+        long invalidationsBefore = invalidationSequence.get();
+        Boolean written;
+        try {
+            written = redisTemplate.opsForValue().setIfAbsent(key(id), value, timeToLive);
+        } catch (RuntimeException e) {
+            log.warn("Could not write customer {} to the remote cache", id, e);
+            return;
+        }
+        // when the key was taken, a write (or another reader) got there first and its entry wins
+        if (Boolean.TRUE.equals(written)) {
+            fillNearCache(id, cached, invalidationsBefore);
+        }
+    }
+
+    private void put(Long id, String value, Duration timeToLive) {
+        invalidateNearCache(id);
+        try {
+            redisTemplate.opsForValue().set(key(id), value, timeToLive);
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), id.toString());
+        } catch (RuntimeException e) {
+            log.warn("Could not write customer {} to the remote cache", id, e);
+            delete(id);
+        }
+    }
+
+    private void delete(Long id) {
+        invalidateNearCache(id);
+        try {
+            redisTemplate.delete(key(id));
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), id.toString());
+        } catch (RuntimeException e) {
+            log.warn("Could not invalidate customer {} in the remote cache", id, e);
+        }
+    }
+
+    private void fillNearCache(Long id, CachedCustomer cached, long invalidationsBefore) {
+        nearCache.put(id, cached);
+        // an invalidation of this id may have arrived between reading the value and caching it
+        Long lastInvalidation = lastInvalidations.getIfPresent(id);
+        if (lastInvalidation != null && lastInvalidation > invalidationsBefore) {
+            nearCache.invalidate(id);
+        }
+    }
+
+    private void invalidateNearCache(Long id) {
+        lastInvalidations.put(id, invalidationSequence.incrementAndGet());
+        nearCache.invalidate(id);
+    }
+
+    private String key(Long id) {
+        return properties.getKeyPrefix() + id;
+    }
+
+    private Optional<String> serialize(Customer customer) {
+        try {
+            return Optional.of(objectMapper.writeValueAsString(customer));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize customer {} for the remote cache", customer.getId(), e);
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Customer> deserialize(Long id, String value) {
+        try {
+            return Optional.of(objectMapper.readValue(value, Customer.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable remote cache entry for customer {}", id, e);
+            return Optional.empty();
+        }
+    }
+}
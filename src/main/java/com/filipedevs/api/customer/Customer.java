@@ -6,7 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-@Table
+// the real email uniqueness guard, the findByEmail check and the email filter only avoid most of the rejected writes
+@Table(uniqueConstraints = @UniqueConstraint(name = "customer_email_key", columnNames = "email"))
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
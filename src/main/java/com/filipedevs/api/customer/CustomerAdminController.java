@@ -0,0 +1,23 @@
+package com.filipedevs.api.customer;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "api/v1/admin/customers")
+public class CustomerAdminController {
+
+    private final CustomerService customerService;
+
+    public CustomerAdminController(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @GetMapping(path = "partitions")
+    public List<CustomerPartitionSize> getPartitionSizes() {
+        return customerService.getPartitionSizes();
+    }
+}
@@ -1,7 +1,11 @@
 package com.filipedevs.api.customer;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -12,8 +16,11 @@ public class CustomerController {
 
     private final CustomerService customerService;
 
-    public CustomerController(CustomerService customerService) {
+    private final CustomerExportService customerExportService;
+
+    public CustomerController(CustomerService customerService, CustomerExportService customerExportService) {
         this.customerService = customerService;
+        this.customerExportService = customerExportService;
     }
 
     @GetMapping
@@ -21,6 +28,15 @@ public class CustomerController {
         return customerService.getCustomers();
     }
 
+    @GetMapping(path = "export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        log.info("Received request to export all customers");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("customers.csv").build().toString())
+                .body(customerExportService::exportCsv);
+    }
+
     @GetMapping(path = "{customerId}")
     public Customer getCustomer(@PathVariable("customerId") Long customerId) {
         return customerService.getCustomerById(customerId);
@@ -0,0 +1,52 @@
+package com.filipedevs.api.customer;
+
+import com.filipedevs.api.exception.CustomerExportException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line mode of the application: {@code --export-customers=<file>} writes the customer table
+ * as CSV to the given file and exits.
+ */
+@Component
+@Slf4j
+public class CustomerExportRunner implements ApplicationRunner {
+
+    public static final String EXPORT_OPTION = "export-customers";
+
+    private final CustomerExportService customerExportService;
+
+    public CustomerExportRunner(CustomerExportService customerExportService) {
+        this.customerExportService = customerExportService;
+    }
+
+    public static boolean isExportRequested(String[] args) {
+        return Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + EXPORT_OPTION + "="));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> values = args.getOptionValues(EXPORT_OPTION);
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        String target = values.get(0);
+        long rows;
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(Path.of(target)))) {
+            rows = customerExportService.exportCsv(outputStream);
+        } catch (IOException e) {
+            throw new CustomerExportException("Could not write customer export to " + target, e);
+        }
+        log.info("Exported {} customers to {}", rows, target);
+    }
+}
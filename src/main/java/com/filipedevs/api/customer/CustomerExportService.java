@@ -0,0 +1,41 @@
+package com.filipedevs.api.customer;
+
+import com.filipedevs.api.exception.CustomerExportException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Service
+public class CustomerExportService {
+
+    // Postgres renders the CSV itself, the rows never become entities or JSON on our side. COPY only reads
+    // partitioned tables (see application-partitioned.yml) through a query
+    static final String COPY_CUSTOMERS_CSV =
+            "COPY (SELECT id, name, email, address FROM customer) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+    private final DataSource dataSource;
+
+    public CustomerExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Streams the whole customer table as CSV into the given output stream.
+     *
+     * @return the number of exported rows
+     */
+    public long exportCsv(OutputStream outputStream) {
+        try (Connection connection = dataSource.getConnection()) {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            return copyManager.copyOut(COPY_CUSTOMERS_CSV, outputStream);
+        } catch (SQLException | IOException e) {
+            throw new CustomerExportException("Customer export failed", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.filipedevs.api.customer;
+
+/**
+ * Size of one partition of the customer table, row counts are the planner estimates from the last ANALYZE.
+ */
+public interface CustomerPartitionSize {
+
+    String getPartitionName();
+
+    Long getEstimatedRows();
+
+    Long getTotalBytes();
+}
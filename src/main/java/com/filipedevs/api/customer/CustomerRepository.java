@@ -1,13 +1,47 @@
 package com.filipedevs.api.customer;
 
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// With the partitioned profile the table is hash partitioned by id: every query filtering on id
+// (findById, existsById, deleteById) is pruned to a single partition, findByEmail probes the email index of each one.
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     Optional<Customer> findByEmail(String email);
+
+    // a plain limited query, findAll(Pageable) would also count the whole table
+    List<Customer> findByOrderByIdDesc(Limit limit);
+
+    @Query("select c.email from Customer c where c.id = :id")
+    Optional<String> findEmailById(Long id);
+
+    // streamed with a cursor, must be consumed inside a transaction and closed
+    @Query("select c.email from Customer c")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<String> streamAllEmails();
+
+    // empty when the customer table is not partitioned
+    @Query(value = """
+            SELECT child.relname                          AS "partitionName",
+                   greatest(child.reltuples, 0)::bigint   AS "estimatedRows",
+                   pg_total_relation_size(child.oid)      AS "totalBytes"
+            FROM pg_inherits
+                     JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE pg_inherits.inhparent = 'customer'::regclass
+            ORDER BY child.relname
+            """, nativeQuery = true)
+    List<CustomerPartitionSize> findPartitionSizes();
 }
@@ -1,7 +1,12 @@
 package com.filipedevs.api.customer;
 
+import com.filipedevs.api.cache.CachedCustomer;
+import com.filipedevs.api.cache.CustomerCache;
+import com.filipedevs.api.emailfilter.CustomerEmailFilter;
 import com.filipedevs.api.exception.CustomerEmailUnavailableException;
 import com.filipedevs.api.exception.CustomerNotFoundException;
+import com.filipedevs.api.jfr.CustomerOperationEvent;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,68 +19,179 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    private final CustomerCache customerCache;
+
+    private final CustomerEmailFilter customerEmailFilter;
+
+    public CustomerService(CustomerRepository customerRepository,
+                           CustomerCache customerCache,
+                           CustomerEmailFilter customerEmailFilter) {
         this.customerRepository = customerRepository;
+        this.customerCache = customerCache;
+        this.customerEmailFilter = customerEmailFilter;
     }
 
     public List<Customer> getCustomers() {
-        return customerRepository.findAll();
+        CustomerOperationEvent event = CustomerOperationEvent.begin("getCustomers", null);
+        try {
+            List<Customer> customers = customerRepository.findAll();
+            event.setOutcome(CustomerOperationEvent.DATABASE);
+            event.setRowCount(customers.size());
+            return customers;
+        } finally {
+            event.commit();
+        }
     }
 
     public Customer getCustomerById(Long id) {
-        return customerRepository.findById(id).orElseThrow(() ->
-                new CustomerNotFoundException("Customer with id " + id + " doesn't found"));
+        CustomerOperationEvent event = CustomerOperationEvent.begin("getCustomerById", id);
+        try {
+            Optional<CachedCustomer> cached = customerCache.get(id);
+            if (cached.isPresent()) {
+                if (cached.get().isMissing()) {
+                    event.setOutcome(CustomerOperationEvent.CACHE_MISSING);
+                    throw new CustomerNotFoundException("Customer with id " + id + " doesn't found");
+                }
+                event.setOutcome(CustomerOperationEvent.CACHE);
+                event.setRowCount(1);
+                return cached.get().customer();
+            }
+
+            event.setOutcome(CustomerOperationEvent.DATABASE);
+            Optional<Customer> customerById = customerRepository.findById(id);
+            if (customerById.isEmpty()) {
+                customerCache.fillMissing(id);
+                throw new CustomerNotFoundException("Customer with id " + id + " doesn't found");
+            }
+            customerCache.fill(customerById.get());
+            event.setRowCount(1);
+            return customerById.get();
+        } finally {
+            event.commit();
+        }
     }
 
     public void createCustomer(CreateCustomerRequest createCustomerRequest) {
+        CustomerOperationEvent event = CustomerOperationEvent.begin("createCustomer", null);
+        try {
+            event.setOutcome(CustomerOperationEvent.DATABASE);
 
-        Optional<Customer> customerByEmail = customerRepository.findByEmail(createCustomerRequest.getEmail());
+            if (isEmailTaken(createCustomerRequest.getEmail())) {
+                throw new CustomerEmailUnavailableException("The email " + createCustomerRequest.getEmail() + " is already taken.");
+            }
 
-        if (customerByEmail.isPresent()) {
-            throw new CustomerEmailUnavailableException("The email " + createCustomerRequest.getEmail() + " is already taken.");
+            Customer customer = new Customer(
+                    createCustomerRequest.getName(),
+                    createCustomerRequest.getEmail(),
+                    createCustomerRequest.getAddress()
+            );
+
+            // recorded before the write, the other nodes must not see a definite miss once the row exists
+            customerEmailFilter.add(customer.getEmail());
+            save(customer);
+            // replaces a missing entry an earlier lookup of the new id may have cached
+            customerCache.put(customer);
+            event.setCustomerId(customer.getId());
+            event.setRowCount(1);
+        } finally {
+            event.commit();
         }
-
-        Customer customer = new Customer(
-                createCustomerRequest.getName(),
-                createCustomerRequest.getEmail(),
-                createCustomerRequest.getAddress()
-        );
-
-        customerRepository.save(customer);
     }
 
     public void updateCustomer(Long id, String name, String email, String address) {
-        Optional<Customer> customerById = customerRepository.findById(id);
-        if (customerById.isEmpty()) {
-            throw new CustomerNotFoundException("Customer with id " + id + " does not exist");
-        }
-        Customer customer = customerById.get();
+        CustomerOperationEvent event = CustomerOperationEvent.begin("updateCustomer", id);
+        try {
+            if (isCachedAsMissing(id)) {
+                event.setOutcome(CustomerOperationEvent.CACHE_MISSING);
+                throw new CustomerNotFoundException("Customer with id " + id + " does not exist");
+            }
+            event.setOutcome(CustomerOperationEvent.DATABASE);
+            Optional<Customer> customerById = customerRepository.findById(id);
+            if (customerById.isEmpty()) {
+                customerCache.fillMissing(id);
+                throw new CustomerNotFoundException("Customer with id " + id + " does not exist");
+            }
+            Customer customer = customerById.get();
 
-        if(Objects.nonNull(name) && !name.isEmpty() && !Objects.equals(customer.getName(), name)){
-            customer.setName(name);
-        }
+            if(Objects.nonNull(name) && !name.isEmpty() && !Objects.equals(customer.getName(), name)){
+                customer.setName(name);
+            }
 
-        if(Objects.nonNull(email) && !email.isEmpty() && !Objects.equals(customer.getEmail(), email)){
-            Optional<Customer> customerByEmail = customerRepository.findByEmail(email);
+            String previousEmail = customer.getEmail();
+            if(Objects.nonNull(email) && !email.isEmpty() && !Objects.equals(customer.getEmail(), email)){
+                if (isEmailTaken(email)) {
+                    throw new CustomerEmailUnavailableException("The email " + email + " is already taken.");
+                }
+                customer.setEmail(email);
+            }
 
-            if (customerByEmail.isPresent()) {
-                throw new CustomerEmailUnavailableException("The email " + email + " is already taken.");
+            if(Objects.nonNull(address) && !address.isEmpty() && !Objects.equals(customer.getAddress(), address)){
+                customer.setAddress(address);
             }
-            customer.setEmail(email);
+
+            boolean emailChanged = !Objects.equals(previousEmail, customer.getEmail());
+            if (emailChanged) {
+                customerEmailFilter.add(customer.getEmail());
+            }
+            save(customer);
+            if (emailChanged) {
+                customerEmailFilter.remove(previousEmail);
+            }
+            customerCache.put(customer);
+            event.setRowCount(1);
+        } finally {
+            event.commit();
         }
+    }
 
-        if(Objects.nonNull(address) && !address.isEmpty() && !Objects.equals(customer.getAddress(), address)){
-            customer.setAddress(address);
+    public void deleteCustomer(Long id) {
+        CustomerOperationEvent event = CustomerOperationEvent.begin("deleteCustomer", id);
+        try {
+            if (isCachedAsMissing(id)) {
+                event.setOutcome(CustomerOperationEvent.CACHE_MISSING);
+                throw new CustomerNotFoundException("Customer with id " + id + " does not exist");
+            }
+            event.setOutcome(CustomerOperationEvent.DATABASE);
+            // the email is needed to take it out of the email filter, reading it also tells whether the customer exists
+            Optional<String> email = customerRepository.findEmailById(id);
+            if (email.isEmpty()) {
+                customerCache.fillMissing(id);
+                throw new CustomerNotFoundException("Customer with id " + id + " does not exist");
+            }
+            customerRepository.deleteById(id);
+            customerEmailFilter.remove(email.get());
+            customerCache.putMissing(id);
+            event.setRowCount(1);
+        } finally {
+            event.commit();
         }
+    }
 
-        customerRepository.save(customer);
+    public List<CustomerPartitionSize> getPartitionSizes() {
+        return customerRepository.findPartitionSizes();
     }
 
-    public void deleteCustomer(Long id) {
-        boolean exists = customerRepository.existsById(id);
-        if (!exists) {
-            throw new CustomerNotFoundException("Customer with id " + id + " does not exist");
+    private boolean isEmailTaken(String email) {
+        if (!customerEmailFilter.mightExist(email)) {
+            return false;
+        }
+        boolean taken = customerRepository.findByEmail(email).isPresent();
+        if (!taken) {
+            customerEmailFilter.recordFalsePositive();
         }
-        customerRepository.deleteById(id);
+        return taken;
+    }
+
+    private void save(Customer customer) {
+        try {
+            customerRepository.save(customer);
+        } catch (DataIntegrityViolationException e) {
+            // the unique email index, another request wrote the same email after the check
+            throw new CustomerEmailUnavailableException("The email " + customer.getEmail() + " is already taken.");
+        }
+    }
+
+    private boolean isCachedAsMissing(Long id) {
+        return customerCache.get(id).map(CachedCustomer::isMissing).orElse(false);
     }
 }
@@ -0,0 +1,129 @@
+package com.filipedevs.api.emailfilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter with 4 bit counters instead of bits, so elements can be removed again. Sixteen counters are
+ * packed in each long of a primitive array, there is no object per element.
+ * <p>
+ * {@link #mightContain(String)} never returns false for an element that was added and not removed.
+ * A counter that reaches 15 stays there, decrementing it could turn other elements into false negatives.
+ * Only elements that were added may be removed.
+ */
+class CountingBloomFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashFunctions;
+    // counters above zero, kept up to date so the false positive estimate needs no scan
+    private final AtomicLong usedCounters = new AtomicLong();
+
+    CountingBloomFilter(long expectedElements, double falsePositiveRate) {
+        // standard Bloom filter sizing: m = -n ln(p) / ln(2)^2 and k = m / n ln(2)
+        long optimalCounters = (long) Math.ceil(-expectedElements * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalCounters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        this.words = new AtomicLongArray(words);
+        this.counters = (long) words * COUNTERS_PER_WORD;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) counters / expectedElements * Math.log(2)));
+    }
+
+    void add(String element) {
+        long hash1 = hash1(element);
+        long hash2 = hash2(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            update(index(hash1, hash2, i), 1);
+        }
+    }
+
+    void remove(String element) {
+        long hash1 = hash1(element);
+        long hash2 = hash2(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            update(index(hash1, hash2, i), -1);
+        }
+    }
+
+    boolean mightContain(String element) {
+        long hash1 = hash1(element);
+        long hash2 = hash2(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (counter(index(hash1, hash2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * Expected false positive rate for the current fill: the chance that all k counters of an unknown element
+     * are non zero.
+     */
+    double estimatedFalsePositiveRate() {
+        return Math.pow((double) usedCounters.get() / counters, hashFunctions);
+    }
+
+    private void update(long index, int delta) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = (int) (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            long value = words.get(word);
+            long counter = (value >>> shift) & COUNTER_MASK;
+            // saturated counters are never changed, empty ones never go below zero
+            if (counter == COUNTER_MASK || (delta < 0 && counter == 0)) {
+                return;
+            }
+            long updated = (value & ~(COUNTER_MASK << shift)) | ((counter + delta) << shift);
+            if (words.compareAndSet(word, value, updated)) {
+                if (counter == 0) {
+                    usedCounters.incrementAndGet();
+                } else if (counter + delta == 0) {
+                    usedCounters.decrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private long counter(long index) {
+        long value = words.get((int) (index / COUNTERS_PER_WORD));
+        return (value >>> ((int) (index % COUNTERS_PER_WORD) * COUNTER_BITS)) & COUNTER_MASK;
+    }
+
+    // double hashing, the i-th hash function is hash1 + i * hash2 (Kirsch and Mitzenmacher)
+    private long index(long hash1, long hash2, int i) {
+        return Math.floorMod(hash1 + i * hash2, counters);
+    }
+
+    private static long hash1(String element) {
+        // FNV-1a over the chars, then the murmur3 finalizer to spread the bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < element.length(); i++) {
+            hash ^= element.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long hash2(long hash1) {
+        // odd so that the k indexes are all different
+        return mix(hash1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,210 @@
+package com.filipedevs.api.emailfilter;
+
+import com.filipedevs.api.customer.CustomerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Membership filter over the emails of all customers, a definite miss lets a create or update skip the
+ * {@code findByEmail} uniqueness query. Possible hits still go to the database.
+ * <p>
+ * The filter is filled by a streaming scan once the application has started, until then every email is
+ * reported as possibly taken. Removals are ignored during the scan, the scan may not have added the email yet.
+ * <p>
+ * Every node records the emails it adds in the shared {@link EmailAdditionLog} before writing them, and follows
+ * the log in the background to add the emails recorded by the others. An email created on another node can be
+ * reported as a miss until it is read, the unique index on email rejects a duplicate written in that window.
+ * While the log cannot be read every email is reported as possibly taken.
+ */
+@Component
+@Slf4j
+public class CustomerEmailFilter {
+
+    // additions read from the log per round trip when catching up
+    private static final int READ_BATCH = 1_000;
+
+    private final EmailFilterProperties properties;
+
+    private final CustomerRepository customerRepository;
+
+    private final EmailAdditionLog additionLog;
+
+    // tells this node's additions apart in the log, they are already in the filter
+    private final String node = UUID.randomUUID().toString();
+
+    private final CountingBloomFilter filter;
+
+    private final Counter queriesAvoided;
+
+    private final Counter falsePositives;
+
+    private volatile boolean ready;
+
+    // false while the log cannot be read, the filter may then miss emails of the other nodes
+    private volatile boolean following;
+
+    // last log entry added to the filter, guarded by this
+    private String readId;
+
+    public CustomerEmailFilter(EmailFilterProperties properties,
+                               CustomerRepository customerRepository,
+                               EmailAdditionLog additionLog,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.customerRepository = customerRepository;
+        this.additionLog = additionLog;
+        this.filter = properties.isEnabled()
+                ? new CountingBloomFilter(properties.getExpectedEmails(), properties.getFalsePositiveRate())
+                : null;
+        this.queriesAvoided = Counter.builder("customer.email.filter.queries.avoided")
+                .description("Email uniqueness queries skipped because the filter had a definite miss")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("customer.email.filter.false.positives")
+                .description("Email uniqueness queries sent for a possible hit that was not in the database")
+                .register(meterRegistry);
+        if (filter != null) {
+            Gauge.builder("customer.email.filter.memory", filter, CountingBloomFilter::memoryBytes)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("customer.email.filter.false.positive.rate", filter,
+                            CountingBloomFilter::estimatedFalsePositiveRate)
+                    .description("False positive rate expected from the current fill of the filter")
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (filter == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // emails recorded shortly before the scan may not be committed yet when it reads the table
+        synchronized (this) {
+            readId = (System.currentTimeMillis() - properties.getReplayMargin().toMillis()) + "-0";
+        }
+        AtomicLong emails = new AtomicLong();
+        try (Stream<String> stream = customerRepository.streamAllEmails()) {
+            stream.forEach(email -> {
+                filter.add(email);
+                emails.incrementAndGet();
+            });
+        }
+        following = readAdditions();
+        additionLog.follow(readId, this::apply, this::followFailed);
+        ready = true;
+        log.info("Loaded {} customer emails into the email filter in {} ms ({} bytes)",
+                emails.get(), (System.nanoTime() - start) / 1_000_000, filter.memoryBytes());
+    }
+
+    /**
+     * @return false only when no customer has this email, the uniqueness query can then be skipped
+     */
+    public boolean mightExist(String email) {
+        if (!ready || !following || email == null) {
+            return true;
+        }
+        if (filter.mightContain(email)) {
+            return true;
+        }
+        queriesAvoided.increment();
+        return false;
+    }
+
+    /**
+     * Called when the database had no customer for an email {@link #mightExist(String)} reported as possible.
+     */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Must be called before the email is written, the other nodes would otherwise see a definite miss for it.
+     * Fails when the email could not be recorded in the log.
+     */
+    public void add(String email) {
+        if (filter != null && email != null) {
+            additionLog.append(node, email);
+            filter.add(email);
+        }
+    }
+
+    /**
+     * The email may have been added through another node and not be read yet, removing it before the addition
+     * would take counters away from other emails. The log is read up to now first, when it cannot be read the
+     * email is kept, which only costs a false positive.
+     */
+    public void remove(String email) {
+        if (!ready || email == null) {
+            return;
+        }
+        synchronized (this) {
+            if (readAdditions()) {
+                following = true;
+                filter.remove(email);
+            }
+        }
+    }
+
+    /**
+     * Adds the emails the other nodes recorded since the last read.
+     *
+     * @return false when the log could not be read, the filter may then miss emails
+     */
+    private synchronized boolean readAdditions() {
+        try {
+            List<EmailAddition> additions;
+            do {
+                additions = additionLog.readAfter(readId, READ_BATCH);
+                additions.forEach(this::apply);
+            } while (additions.size() == READ_BATCH);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not read the email additions of the other nodes", e);
+            return false;
+        }
+    }
+
+    // the background read and readAdditions both deliver entries, each one is only added once
+    private synchronized void apply(EmailAddition addition) {
+        if (compareIds(addition.id(), readId) <= 0) {
+            return;
+        }
+        if (!node.equals(addition.node()) && addition.email() != null) {
+            filter.add(addition.email());
+        }
+        readId = addition.id();
+        following = true;
+    }
+
+    private void followFailed(Throwable e) {
+        if (following) {
+            log.warn("Could not read the email additions of the other nodes, every email is reported as possibly taken", e);
+        }
+        following = false;
+    }
+
+    // stream ids are <milliseconds>-<sequence>
+    private static int compareIds(String id, String other) {
+        int separator = id.indexOf('-');
+        int otherSeparator = other.indexOf('-');
+        int byTime = Long.compare(Long.parseLong(id.substring(0, separator)),
+                Long.parseLong(other.substring(0, otherSeparator)));
+        return byTime != 0 ? byTime : Long.compare(Long.parseLong(id.substring(separator + 1)),
+                Long.parseLong(other.substring(otherSeparator + 1)));
+    }
+}
@@ -0,0 +1,7 @@
+package com.filipedevs.api.emailfilter;
+
+/**
+ * An email added to the customers by one of the nodes, {@code id} orders the additions of all nodes.
+ */
+public record EmailAddition(String id, String node, String email) {
+}
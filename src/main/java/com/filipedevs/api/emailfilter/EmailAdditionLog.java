@@ -0,0 +1,28 @@
+package com.filipedevs.api.emailfilter;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Emails added by every node, in order, so each node can add the emails written through the others to its filter.
+ * <p>
+ * Ids are Redis stream ids, {@code <milliseconds>-<sequence>}.
+ */
+public interface EmailAdditionLog {
+
+    /**
+     * Records an email before it is written to the database, fails when it could not be recorded.
+     */
+    void append(String node, String email);
+
+    /**
+     * @return at most {@code count} additions recorded after {@code id}, oldest first
+     */
+    List<EmailAddition> readAfter(String id, int count);
+
+    /**
+     * Delivers the additions recorded after {@code id} to {@code listener} from a background thread, oldest first.
+     * Read failures go to {@code errorHandler}, reading then goes on from the last delivered addition.
+     */
+    void follow(String id, Consumer<EmailAddition> listener, Consumer<Throwable> errorHandler);
+}
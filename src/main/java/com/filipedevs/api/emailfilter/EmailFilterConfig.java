@@ -0,0 +1,17 @@
+package com.filipedevs.api.emailfilter;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(EmailFilterProperties.class)
+public class EmailFilterConfig {
+
+    // the Redis connection is only opened once the enabled filter uses it
+    @Bean(destroyMethod = "close")
+    public EmailAdditionLog emailAdditionLog(StringRedisTemplate redisTemplate, EmailFilterProperties properties) {
+        return new RedisEmailAdditionLog(redisTemplate, properties);
+    }
+}
@@ -0,0 +1,26 @@
+package com.filipedevs.api.emailfilter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.email-filter")
+public class EmailFilterProperties {
+
+    // needs Redis, the emails added by every replica are shared through a Redis stream
+    private boolean enabled;
+
+    private long expectedEmails = 2_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    private String streamKey = "customer:emails";
+
+    // must hold more than the additions of replay-margin
+    private long streamMaxLength = 1_000_000;
+
+    // additions this long before the startup scan are replayed, covers creates still in flight and clock skew
+    private Duration replayMargin = Duration.ofMinutes(5);
+}
@@ -0,0 +1,97 @@
+package com.filipedevs.api.emailfilter;
+
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the email additions in a Redis stream shared by all nodes, trimmed to about {@code streamMaxLength} entries.
+ */
+public class RedisEmailAdditionLog implements EmailAdditionLog {
+
+    private static final String NODE = "node";
+
+    private static final String EMAIL = "email";
+
+    // a blocking read must return within spring.data.redis.timeout, it would otherwise fail as a timeout
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private static final int POLL_BATCH = 1_000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final EmailFilterProperties properties;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    public RedisEmailAdditionLog(StringRedisTemplate redisTemplate, EmailFilterProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void append(String node, String email) {
+        // XADD MAXLEN ~ trims in the same round trip, approximate trimming only drops whole stream nodes
+        XAddOptions options = XAddOptions.maxlen(properties.getStreamMaxLength()).approximateTrimming(true);
+        redisTemplate.execute((RedisCallback<RecordId>) connection -> ((StringRedisConnection) connection).xAdd(
+                StreamRecords.string(Map.of(NODE, node, EMAIL, email)).withStreamKey(properties.getStreamKey()),
+                options));
+    }
+
+    @Override
+    public List<EmailAddition> readAfter(String id, int count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                StreamReadOptions.empty().count(count),
+                StreamOffset.create(properties.getStreamKey(), ReadOffset.from(id)));
+        return Objects.requireNonNullElse(records, List.<MapRecord<String, Object, Object>>of()).stream()
+                .map(record -> new EmailAddition(
+                        record.getId().getValue(),
+                        (String) record.getValue().get(NODE),
+                        (String) record.getValue().get(EMAIL)))
+                .toList();
+    }
+
+    @Override
+    public synchronized void follow(String id, Consumer<EmailAddition> listener, Consumer<Throwable> errorHandler) {
+        if (container == null) {
+            container = StreamMessageListenerContainer.create(redisTemplate.getRequiredConnectionFactory(),
+                    StreamMessageListenerContainerOptions.builder()
+                            .pollTimeout(POLL_TIMEOUT)
+                            .batchSize(POLL_BATCH)
+                            .build());
+            container.start();
+        }
+        container.register(
+                StreamReadRequest.builder(StreamOffset.create(properties.getStreamKey(), ReadOffset.from(id)))
+                        .errorHandler(errorHandler::accept)
+                        // a Redis outage must not end the subscription, the filter would never catch up again
+                        .cancelOnError(e -> false)
+                        .build(),
+                record -> listener.accept(new EmailAddition(
+                        record.getId().getValue(),
+                        record.getValue().get(NODE),
+                        record.getValue().get(EMAIL))));
+    }
+
+    public synchronized void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
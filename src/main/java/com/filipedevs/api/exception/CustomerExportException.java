@@ -0,0 +1,7 @@
+package com.filipedevs.api.exception;
+
+public class CustomerExportException extends RuntimeException {
+    public CustomerExportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,7 @@
 package com.filipedevs.api.exception;
 
 
+import com.filipedevs.api.jfr.CustomerExceptionEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,6 +19,7 @@ public class GlobalExceptionHandler {
     public ApiErrorResponse handleCustomerEmailUnavailableException(CustomerEmailUnavailableException ex,
                                                                     HttpServletRequest request,
                                                                     HandlerMethod method) {
+            CustomerExceptionEvent.record(ex, HttpStatus.CONFLICT.value(), request.getRequestURI());
             ApiErrorResponse apiErrorResponse = new ApiErrorResponse(
                     HttpStatus.CONFLICT,
                     ex.getMessage(),
@@ -34,6 +36,7 @@ public class GlobalExceptionHandler {
     public ApiErrorResponse handleCustomerNotFoundException(CustomerNotFoundException ex,
                                                            HttpServletRequest request,
                                                            HandlerMethod method) {
+        CustomerExceptionEvent.record(ex, HttpStatus.NOT_FOUND.value(), request.getRequestURI());
         ApiErrorResponse apiErrorResponse = new ApiErrorResponse(
                 HttpStatus.NOT_FOUND,
                 ex.getMessage(),
@@ -0,0 +1,40 @@
+package com.filipedevs.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.filipedevs.api.CustomerException")
+@Label("Customer Exception")
+@Category("Customer API")
+@Description("An exception turned into an error response by the GlobalExceptionHandler")
+@StackTrace(false)
+public class CustomerExceptionEvent extends Event {
+
+    @Label("Exception")
+    private Class<?> exceptionClass;
+
+    @Label("Message")
+    private String message;
+
+    @Label("Status")
+    private int status;
+
+    @Label("Path")
+    private String path;
+
+    public static void record(Exception exception, int status, String path) {
+        CustomerExceptionEvent event = new CustomerExceptionEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.exceptionClass = exception.getClass();
+        event.message = exception.getMessage();
+        event.status = status;
+        event.path = path;
+        event.commit();
+    }
+}
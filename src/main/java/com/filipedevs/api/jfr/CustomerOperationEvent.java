@@ -0,0 +1,58 @@
+package com.filipedevs.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code CustomerService} call. The event is cheap when no recording asks for it, begin and commit
+ * are optimized away by the JIT.
+ */
+@Name("com.filipedevs.api.CustomerOperation")
+@Label("Customer Operation")
+@Category("Customer API")
+@Description("A call to the customer service, its duration is the duration of the call")
+@StackTrace(false)
+public class CustomerOperationEvent extends Event {
+
+    public static final String CACHE = "cache";
+    public static final String CACHE_MISSING = "cache-missing";
+    public static final String DATABASE = "database";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Customer Id")
+    private long customerId;
+
+    @Label("Row Count")
+    @Description("Number of customers returned or written")
+    private int rowCount;
+
+    @Label("Outcome")
+    @Description("Where the data came from: cache, cache-missing (negative cache hit) or database")
+    private String outcome;
+
+    public static CustomerOperationEvent begin(String operation, Long customerId) {
+        CustomerOperationEvent event = new CustomerOperationEvent();
+        event.operation = operation;
+        event.setCustomerId(customerId);
+        event.begin();
+        return event;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId == null ? 0 : customerId;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
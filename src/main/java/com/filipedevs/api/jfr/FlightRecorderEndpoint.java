@@ -0,0 +1,75 @@
+package com.filipedevs.api.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/jfr}: GET lists the recordings, POST {@code {"name": "..."}} starts one,
+ * GET {@code /actuator/jfr/{name}} downloads a snapshot and DELETE {@code /actuator/jfr/{name}} stops it.
+ * The continuous recording is called {@value FlightRecorderService#CONTINUOUS_RECORDING}.
+ * <p>
+ * Served on the management port only, recordings expose internals of the application.
+ * Invalid names are answered with 400, starting a running recording and stopping the continuous one with 409.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    // WebEndpointResponse has no constant for it
+    private static final int STATUS_CONFLICT = 409;
+
+    private final FlightRecorderService flightRecorderService;
+
+    public FlightRecorderEndpoint(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    @ReadOperation
+    public List<RecordingSummary> recordings() {
+        return flightRecorderService.getRecordings();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> start(String name) {
+        try {
+            return new WebEndpointResponse<>(flightRecorderService.start(name));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(e.getMessage(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(e.getMessage(), STATUS_CONFLICT);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector String name) {
+        try {
+            return flightRecorderService.dump(name)
+                    .map(dump -> new WebEndpointResponse<Resource>(new FileSystemResource(dump)))
+                    .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<String> stop(@Selector String name) {
+        try {
+            return flightRecorderService.stop(name)
+                    .map(dump -> new WebEndpointResponse<>(dump.toAbsolutePath().toString()))
+                    .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(e.getMessage(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(e.getMessage(), STATUS_CONFLICT);
+        }
+    }
+}
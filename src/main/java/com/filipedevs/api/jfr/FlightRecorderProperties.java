@@ -0,0 +1,31 @@
+package com.filipedevs.api.jfr;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.jfr")
+public class FlightRecorderProperties {
+
+    // always-on recording with the low overhead "default" settings, kept on disk as a ring buffer
+    private boolean continuous = true;
+
+    private String continuousSettings = "default";
+
+    private Duration maxAge = Duration.ofHours(6);
+
+    private DataSize maxSize = DataSize.ofMegabytes(250);
+
+    // on-demand recordings use the more detailed "profile" settings
+    private String onDemandSettings = "profile";
+
+    // where dumps are written before being downloaded
+    private Path dumpDirectory = Path.of("jfr");
+
+    // dumps kept in the dump directory, the oldest ones are deleted
+    private int maxDumps = 3;
+}
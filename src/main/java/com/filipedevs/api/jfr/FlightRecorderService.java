@@ -0,0 +1,179 @@
+package com.filipedevs.api.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts, stops and dumps JDK Flight Recorder recordings, including the continuous one started with the application.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    public static final String CONTINUOUS_RECORDING = "continuous";
+
+    // names end up in dump file names, nothing that could leave the dump directory
+    private static final Pattern RECORDING_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static final DateTimeFormatter DUMP_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final FlightRecorderProperties properties;
+
+    public FlightRecorderService(FlightRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startContinuousRecording() {
+        if (!properties.isContinuous() || !FlightRecorder.isAvailable() || find(CONTINUOUS_RECORDING).isPresent()) {
+            return;
+        }
+        Recording recording = newRecording(CONTINUOUS_RECORDING, properties.getContinuousSettings());
+        recording.setMaxAge(properties.getMaxAge());
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        // the ring buffer is what an incident needs, keep it when the JVM shuts down (pod restart, OOM exit)
+        try {
+            Files.createDirectories(properties.getDumpDirectory());
+            recording.setDestination(dumpPath(CONTINUOUS_RECORDING + "-exit"));
+            recording.setDumpOnExit(true);
+        } catch (IOException e) {
+            log.warn("The continuous JFR recording will not be written on exit", e);
+        }
+        recording.start();
+        log.info("Started continuous JFR recording, keeping the last {} (at most {})",
+                properties.getMaxAge(), properties.getMaxSize());
+    }
+
+    public List<RecordingSummary> getRecordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(RecordingSummary::of)
+                .toList();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the name is not made of letters, digits, '_' and '-'
+     * @throws IllegalStateException when a recording with that name is already running
+     */
+    public RecordingSummary start(String name) {
+        validateName(name);
+        if (find(name).filter(recording -> recording.getState() == RecordingState.RUNNING).isPresent()) {
+            throw new IllegalStateException("Recording " + name + " is already running");
+        }
+        Recording recording = newRecording(name, properties.getOnDemandSettings());
+        recording.start();
+        log.info("Started JFR recording {}", name);
+        return RecordingSummary.of(recording);
+    }
+
+    /**
+     * Stops the recording and writes what it holds to the dump directory.
+     *
+     * @throws IllegalStateException for the continuous recording, it runs for the lifetime of the application
+     */
+    public Optional<Path> stop(String name) {
+        validateName(name);
+        if (CONTINUOUS_RECORDING.equals(name)) {
+            throw new IllegalStateException("The continuous recording cannot be stopped, dump it instead");
+        }
+        return find(name).map(recording -> {
+            Path dump = dump(recording);
+            recording.close();
+            log.info("Stopped JFR recording {}, written to {}", name, dump);
+            return dump;
+        });
+    }
+
+    /**
+     * Writes a snapshot of a running recording to the dump directory, the recording keeps going.
+     */
+    public Optional<Path> dump(String name) {
+        validateName(name);
+        return find(name).map(this::dump);
+    }
+
+    private Path dump(Recording recording) {
+        try {
+            Files.createDirectories(properties.getDumpDirectory());
+            Path dump = dumpPath(recording.getName());
+            recording.dump(dump);
+            deleteOldDumps(dump);
+            return dump;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not dump JFR recording " + recording.getName(), e);
+        }
+    }
+
+    private Path dumpPath(String prefix) {
+        return properties.getDumpDirectory().resolve(prefix + "-" + DUMP_TIMESTAMP.format(Instant.now()) + ".jfr");
+    }
+
+    /**
+     * Keeps the latest dump and the most recent older ones, up to {@code maxDumps} files.
+     */
+    private void deleteOldDumps(Path latest) throws IOException {
+        List<Path> olderDumps;
+        try (Stream<Path> files = Files.list(properties.getDumpDirectory())) {
+            olderDumps = files.filter(file -> file.getFileName().toString().endsWith(".jfr"))
+                    .filter(file -> !file.equals(latest))
+                    .sorted(Comparator.comparing(this::lastModified).reversed())
+                    .toList();
+        }
+        for (Path dump : olderDumps.stream().skip(Math.max(properties.getMaxDumps() - 1, 0)).toList()) {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            // deleted meanwhile, sorts as the oldest
+            return 0;
+        }
+    }
+
+    private static void validateName(String name) {
+        if (name == null || !RECORDING_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid recording name, use letters, digits, '_' and '-'");
+        }
+    }
+
+    private Recording newRecording(String name, String settings) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(settings));
+            recording.setName(name);
+            recording.setToDisk(true);
+            return recording;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not load JFR settings " + settings, e);
+        }
+    }
+
+    private Optional<Recording> find(String name) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getName().equals(name))
+                .filter(recording -> recording.getState() != RecordingState.CLOSED)
+                .findFirst();
+    }
+}
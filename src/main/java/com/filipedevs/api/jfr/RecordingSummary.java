@@ -0,0 +1,27 @@
+package com.filipedevs.api.jfr;
+
+import jdk.jfr.Recording;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record RecordingSummary(long id,
+                               String name,
+                               String state,
+                               Instant startTime,
+                               Duration maxAge,
+                               long maxSize,
+                               long size) {
+
+    static RecordingSummary of(Recording recording) {
+        return new RecordingSummary(
+                recording.getId(),
+                recording.getName(),
+                recording.getState().name(),
+                recording.getStartTime(),
+                recording.getMaxAge(),
+                recording.getMaxSize(),
+                recording.getSize()
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package com.filipedevs.api.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customer.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    // each repository query is run this many times, enough for the driver to switch to server prepared statements
+    private int statementRounds = 10;
+
+    // most recently created customers loaded into the cache
+    private int hotCustomers = 1_000;
+
+    // synthetic requests sent to the customer endpoints
+    private int requests = 5_000;
+
+    // the request phase stops early when this is exceeded, the pod must not stay unready forever
+    private Duration timeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,251 @@
+package com.filipedevs.api.warmup;
+
+import com.filipedevs.api.cache.CustomerCache;
+import com.filipedevs.api.customer.Customer;
+import com.filipedevs.api.customer.CustomerController;
+import com.filipedevs.api.customer.CustomerExportRunner;
+import com.filipedevs.api.customer.CustomerRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Warms the JIT, the connection pool, the statement caches and the customer cache before the pod takes traffic.
+ * <p>
+ * Application runners complete before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC},
+ * so the readiness probe only reports UP once the warm-up is over. The embedded server is already listening,
+ * which lets the warm-up call the real endpoints.
+ */
+@Component
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+
+    // id that never exists, used to exercise the not found paths without touching real customers
+    private static final long UNKNOWN_ID = -1L;
+
+    // the address is not a string, the request body is rejected with a 400 once name and email have been read
+    private static final String UNREADABLE_CREATE_REQUEST =
+            "{\"name\": \"warm-up\", \"email\": \"warm-up@example.invalid\", \"address\": [\"warm-up\"]}";
+
+    // these log every warm-up request, the controller at INFO and the rejected bodies at WARN
+    private static final List<String> QUIET_LOGGERS = List.of(
+            CustomerController.class.getName(),
+            DefaultHandlerExceptionResolver.class.getName());
+
+    private final WarmUpProperties properties;
+
+    private final DataSource dataSource;
+
+    private final CustomerRepository customerRepository;
+
+    private final CustomerCache customerCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationContext applicationContext;
+
+    private final LoggingSystem loggingSystem;
+
+    public WarmUpRunner(WarmUpProperties properties,
+                        DataSource dataSource,
+                        CustomerRepository customerRepository,
+                        CustomerCache customerCache,
+                        MeterRegistry meterRegistry,
+                        ApplicationContext applicationContext,
+                        LoggingSystem loggingSystem) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.customerRepository = customerRepository;
+        this.customerCache = customerCache;
+        this.meterRegistry = meterRegistry;
+        this.applicationContext = applicationContext;
+        this.loggingSystem = loggingSystem;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled() || args.containsOption(CustomerExportRunner.EXPORT_OPTION)) {
+            return;
+        }
+        OptionalInt port = applicationContext instanceof WebServerApplicationContext webContext
+                && webContext.getWebServer() != null
+                ? OptionalInt.of(webContext.getWebServer().getPort())
+                : OptionalInt.empty();
+        warmUp(port);
+    }
+
+    void warmUp(OptionalInt port) {
+        log.info("Warming up before reporting ready");
+        long start = System.nanoTime();
+
+        timed("connections", this::fillConnectionPool);
+        timed("statements", this::prepareStatements);
+        List<Customer> hotCustomers = Objects.requireNonNullElse(timed("cache", this::loadHotCustomers), List.of());
+        port.ifPresent(serverPort -> timed("requests", () -> sendRequests(serverPort, hotCustomers)));
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("customer.warmup.duration")
+                .tag("phase", "total")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Warm-up finished in {} ms", elapsed / 1_000_000);
+    }
+
+    /**
+     * Opens every connection the pool may hold instead of letting the first requests pay for it.
+     */
+    private void fillConnectionPool() {
+        int size = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 1;
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("Could only open {} connections during warm-up", connections.size(), e);
+        } finally {
+            connections.forEach(this::closeQuietly);
+        }
+    }
+
+    private void prepareStatements() {
+        for (int i = 0; i < properties.getStatementRounds(); i++) {
+            customerRepository.findById(UNKNOWN_ID);
+            customerRepository.findEmailById(UNKNOWN_ID);
+            customerRepository.findByEmail("");
+        }
+    }
+
+    /**
+     * There is no access statistic to pick the hot customers from, the most recently created ones are used instead.
+     */
+    private List<Customer> loadHotCustomers() {
+        if (properties.getHotCustomers() <= 0) {
+            return List.of();
+        }
+        List<Customer> hotCustomers = customerRepository.findByOrderByIdDesc(Limit.of(properties.getHotCustomers()));
+        hotCustomers.forEach(customerCache::fill);
+        return hotCustomers;
+    }
+
+    /**
+     * Calls every customer endpoint without changing any data: updates and deletes target an unknown id, creates
+     * send a body that fails to deserialize before reaching the service. The list endpoint is left out, it reads
+     * the whole table.
+     */
+    private void sendRequests(int port, List<Customer> hotCustomers) {
+        RestClient restClient = RestClient.create("http://localhost:" + port + "/api/v1/customers");
+        Timer first = Timer.builder("customer.warmup.request").tag("batch", "first").register(meterRegistry);
+        Timer last = Timer.builder("customer.warmup.request").tag("batch", "last").register(meterRegistry);
+        int requests = properties.getRequests();
+        // the first and last 10% of the requests show how much faster the warmed up code runs
+        int batch = Math.max(1, requests / 10);
+        long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+
+        // the pod is not ready yet, only warm-up requests are logged while the loggers are quiet
+        Map<String, LogLevel> configuredLevels = quietLoggers();
+        try {
+            for (int i = 0; i < requests && System.nanoTime() < deadline; i++) {
+                long start = System.nanoTime();
+                send(restClient, i, hotCustomers);
+                long elapsed = System.nanoTime() - start;
+                if (i < batch) {
+                    first.record(elapsed, TimeUnit.NANOSECONDS);
+                } else if (i >= requests - batch) {
+                    last.record(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            // a null level goes back to the inherited one
+            configuredLevels.forEach(loggingSystem::setLogLevel);
+        }
+    }
+
+    private Map<String, LogLevel> quietLoggers() {
+        Map<String, LogLevel> configuredLevels = new HashMap<>();
+        for (String logger : QUIET_LOGGERS) {
+            LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(logger);
+            configuredLevels.put(logger, configuration == null ? null : configuration.getConfiguredLevel());
+            loggingSystem.setLogLevel(logger, LogLevel.ERROR);
+        }
+        return configuredLevels;
+    }
+
+    private void send(RestClient restClient, int request, List<Customer> hotCustomers) {
+        try {
+            RestClient.RequestHeadersSpec<?> spec = switch (request % 5) {
+                case 0 -> restClient.get().uri("/{id}", UNKNOWN_ID);
+                case 1 -> restClient.put().uri("/{id}?name={name}", UNKNOWN_ID, "warm-up");
+                case 2 -> restClient.delete().uri("/{id}", UNKNOWN_ID);
+                case 3 -> restClient.post()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(UNREADABLE_CREATE_REQUEST);
+                default -> restClient.get().uri("/{id}", hotCustomers.isEmpty()
+                        ? UNKNOWN_ID
+                        : hotCustomers.get(request % hotCustomers.size()).getId());
+            };
+            spec.retrieve()
+                    .onStatus(HttpStatusCode::isError, (req, response) -> {
+                        // rejections are expected, they are what keeps the warm-up from writing data
+                    })
+                    .toBodilessEntity();
+        } catch (RuntimeException e) {
+            log.debug("Warm-up request failed", e);
+        }
+    }
+
+    private void timed(String phase, Runnable step) {
+        timed(phase, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    private <T> T timed(String phase, Supplier<T> step) {
+        Timer timer = Timer.builder("customer.warmup.duration").tag("phase", phase).register(meterRegistry);
+        long start = System.nanoTime();
+        try {
+            return step.get();
+        } catch (RuntimeException e) {
+            // a failed warm-up step must not keep the application from starting
+            log.warn("Warm-up phase {} failed", phase, e);
+            return null;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close warm-up connection", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.filipedevs.api.server;
+
+import org.eclipse.jetty.server.ServerConnector;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Only compiled in the jetty build (-Dserver.container=jetty), the other builds have no Jetty classes.
+ */
+@Configuration
+@EnableConfigurationProperties(JettyProperties.class)
+public class JettyConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<JettyServletWebServerFactory> jettyAcceptQueueCustomizer(JettyProperties properties) {
+        return factory -> factory.addServerCustomizers(server -> {
+            if (properties.getAcceptQueueSize() <= 0) {
+                return;
+            }
+            for (var connector : server.getConnectors()) {
+                if (connector instanceof ServerConnector serverConnector) {
+                    serverConnector.setAcceptQueueSize(properties.getAcceptQueueSize());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.filipedevs.api.server;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Jetty settings Spring Boot has no {@code server.jetty} property for.
+ */
+@Data
+@ConfigurationProperties(prefix = "customer.jetty")
+public class JettyProperties {
+
+    // connections waiting in the OS backlog once max-connections is reached, 0 keeps the JVM default (50)
+    private int acceptQueueSize;
+}
@@ -0,0 +1,67 @@
+-- Replaces the customer table with a table hash partitioned by id.
+-- Lookups by id only touch one partition, and each partition keeps its own small indexes,
+-- so inserts and lookups do not slow down as the table grows.
+--
+-- An existing customer table is converted in place, in the migration transaction. The table is locked first,
+-- replicas still running the previous version wait for the conversion instead of writing rows that the copy
+-- would miss. Tables over ${maxInPlaceRows} rows are refused, they would block those replicas for too long and
+-- have to be converted offline, see the partitioned profile in the README.
+
+-- taken before anything else and held until the migration commits
+DO
+$$
+    BEGIN
+        IF to_regclass('customer') IS NOT NULL THEN
+            LOCK TABLE customer IN ACCESS EXCLUSIVE MODE;
+            IF (SELECT count(*) FROM (SELECT 1 FROM customer LIMIT ${maxInPlaceRows} + 1) AS sample)
+                > ${maxInPlaceRows} THEN
+                RAISE EXCEPTION 'customer has more than % rows, convert it offline (see README)', ${maxInPlaceRows};
+            END IF;
+        END IF;
+    END
+$$;
+
+-- Postgres 16 has no identity columns on partitioned tables, ids come from a plain sequence
+CREATE SEQUENCE customer_partitioned_id_seq;
+
+CREATE TABLE customer_partitioned
+(
+    id      bigint NOT NULL DEFAULT nextval('customer_partitioned_id_seq'),
+    name    varchar(255),
+    email   varchar(255),
+    address varchar(255),
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+DO
+$$
+    BEGIN
+        FOR i IN 0..${customerPartitions} - 1
+            LOOP
+                EXECUTE format('CREATE TABLE customer_p%s PARTITION OF customer_partitioned '
+                                   'FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                               i, ${customerPartitions}, i);
+            END LOOP;
+    END
+$$;
+
+-- created on every partition, backs the email uniqueness check
+CREATE INDEX customer_email_idx ON customer_partitioned (email);
+
+-- move the rows of a table created by ddl-auto, ids are kept, the lock taken above is still held
+DO
+$$
+    BEGIN
+        IF to_regclass('customer') IS NOT NULL THEN
+            INSERT INTO customer_partitioned (id, name, email, address)
+            SELECT id, name, email, address
+            FROM customer;
+            PERFORM setval('customer_partitioned_id_seq', coalesce((SELECT max(id) FROM customer), 0) + 1, false);
+            DROP TABLE customer;
+        END IF;
+    END
+$$;
+
+ALTER TABLE customer_partitioned RENAME TO customer;
+ALTER SEQUENCE customer_partitioned_id_seq RENAME TO customer_id_seq;
+ALTER SEQUENCE customer_id_seq OWNED BY customer.id;
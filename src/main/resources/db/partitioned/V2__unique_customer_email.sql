@@ -0,0 +1,42 @@
+-- Makes customer emails unique on the partitioned table.
+-- A unique index on a table partitioned by id has to contain id, so it cannot guard the email on its own.
+-- customer_email keeps one row per email in step with customer through a trigger, writing an email that
+-- another customer already has fails the customer write with a unique violation.
+
+CREATE TABLE customer_email
+(
+    email varchar(255) PRIMARY KEY
+);
+
+-- fails on emails that are already duplicated, they have to be resolved before upgrading
+INSERT INTO customer_email (email)
+SELECT email
+FROM customer
+WHERE email IS NOT NULL;
+
+-- customer_email is resolved in the schema of the migration, whatever the search_path of the writing session
+CREATE FUNCTION customer_email_sync() RETURNS trigger
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT AS
+$$
+BEGIN
+    -- Hibernate updates every column, an unchanged email must not be deleted and inserted again
+    IF TG_OP = 'UPDATE' AND OLD.email IS NOT DISTINCT FROM NEW.email THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.email IS NOT NULL THEN
+        DELETE FROM customer_email WHERE email = OLD.email;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.email IS NOT NULL THEN
+        INSERT INTO customer_email (email) VALUES (NEW.email);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- created on every partition
+CREATE TRIGGER customer_email_sync
+    AFTER INSERT OR UPDATE OF email OR DELETE
+    ON customer
+    FOR EACH ROW
+EXECUTE FUNCTION customer_email_sync();
@@ -15,7 +15,7 @@ public abstract class AbstractTestcontainersTest {
 
     @Container
     @ServiceConnection
-    static PostgreSQLContainer<?> postgreSQLContainer
+    protected static PostgreSQLContainer<?> postgreSQLContainer
             = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16.2"));
 
     @Test
@@ -0,0 +1,79 @@
+package com.filipedevs.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filipedevs.api.customer.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Interleaves invalidation messages with a Redis read, which the Redis backed {@link TwoLevelCustomerCacheTest}
+ * cannot time.
+ */
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCustomerCacheNearCacheTest {
+
+    @Mock
+    StringRedisTemplate redisTemplate;
+
+    @Mock
+    ValueOperations<String, String> valueOperations;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    TwoLevelCustomerCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        underTest = new TwoLevelCustomerCache(redisTemplate, objectMapper, new CustomerCacheProperties());
+    }
+
+    @Test
+    void shouldFillNearCacheWhenAnotherIdIsInvalidatedDuringRead() throws Exception {
+        // given
+        String customer = objectMapper.writeValueAsString(new Customer(1L, "Filipe", "filipe@gmail.com", "BE"));
+        when(valueOperations.get("customer:1")).thenAnswer(invocation -> {
+            underTest.onMessage(invalidation(2L), null);
+            return customer;
+        });
+        // when
+        underTest.get(1L);
+        underTest.get(1L);
+        // then
+        // the second read is served by the near cache
+        verify(valueOperations, times(1)).get("customer:1");
+    }
+
+    @Test
+    void shouldNotFillNearCacheWhenSameIdIsInvalidatedDuringRead() throws Exception {
+        // given
+        String customer = objectMapper.writeValueAsString(new Customer(1L, "Filipe", "filipe@gmail.com", "BE"));
+        when(valueOperations.get("customer:1")).thenAnswer(invocation -> {
+            underTest.onMessage(invalidation(1L), null);
+            return customer;
+        });
+        // when
+        underTest.get(1L);
+        underTest.get(1L);
+        // then
+        // the value read may predate the write behind the invalidation, Redis is asked again
+        verify(valueOperations, times(2)).get("customer:1");
+        assertThat(underTest.get(1L)).isPresent();
+    }
+
+    private static DefaultMessage invalidation(Long id) {
+        return new DefaultMessage("customer:invalidation".getBytes(StandardCharsets.UTF_8),
+                id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,148 @@
+package com.filipedevs.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filipedevs.api.customer.Customer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class TwoLevelCustomerCacheTest {
+
+    @Container
+    static GenericContainer<?> redisContainer
+            = new GenericContainer<>(DockerImageName.parse("redis:7.2")).withExposedPorts(6379);
+
+    LettuceConnectionFactory connectionFactory;
+
+    RedisMessageListenerContainer listenerContainer;
+
+    StringRedisTemplate redisTemplate;
+
+    // two caches sharing the same Redis, as two replicas of the service would
+    TwoLevelCustomerCache node;
+
+    TwoLevelCustomerCache otherNode;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redisContainer.getHost(), redisContainer.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        CustomerCacheProperties properties = new CustomerCacheProperties();
+        node = new TwoLevelCustomerCache(redisTemplate, new ObjectMapper(), properties);
+        otherNode = new TwoLevelCustomerCache(redisTemplate, new ObjectMapper(), properties);
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(node, new ChannelTopic(properties.getInvalidationChannel()));
+        listenerContainer.addMessageListener(otherNode, new ChannelTopic(properties.getInvalidationChannel()));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listenerContainer.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void shouldServeCustomerCachedByAnotherNode() {
+        // given
+        Customer customer = new Customer(1L, "Filipe", "filipe@gmail.com", "BE");
+        // when
+        node.fill(customer);
+        // then
+        Optional<CachedCustomer> cached = otherNode.get(1L);
+        assertThat(cached).isPresent();
+        assertThat(cached.get().customer()).isEqualTo(customer);
+    }
+
+    @Test
+    void shouldCacheMissingIds() {
+        // when
+        node.fillMissing(2L);
+        // then
+        assertThat(otherNode.get(2L)).contains(CachedCustomer.missing());
+    }
+
+    @Test
+    void shouldReplaceNearCacheOfOtherNodesOnWrite() throws InterruptedException {
+        // given, the other node has the customer in its near cache
+        node.fill(new Customer(3L, "Filipe", "filipe@gmail.com", "BE"));
+        assertThat(otherNode.get(3L)).isPresent();
+        Customer updated = new Customer(3L, "Filipe Dev", "filipe@gmail.com", "BE");
+        // when
+        node.put(updated);
+        // then, the invalidation message reaches the other node asynchronously
+        awaitCached(otherNode, 3L, new CachedCustomer(updated));
+        assertThat(otherNode.get(3L)).contains(new CachedCustomer(updated));
+    }
+
+    @Test
+    void shouldKeepWrittenCustomerWhenReaderFillsStaleRowAfterWrite() throws InterruptedException {
+        // given
+        // a reader on the other node misses the cache and loads the row before the write commits
+        Customer stale = new Customer(4L, "Filipe", "filipe@gmail.com", "BE");
+        assertThat(otherNode.get(4L)).isEmpty();
+        // the writer saves and caches the new state
+        Customer updated = new Customer(4L, "Filipe Dev", "filipe@gmail.com", "BE");
+        node.put(updated);
+        // when
+        // the reader only now caches what it loaded
+        otherNode.fill(stale);
+        // then
+        awaitCached(otherNode, 4L, new CachedCustomer(updated));
+        assertThat(node.get(4L)).contains(new CachedCustomer(updated));
+        assertThat(otherNode.get(4L)).contains(new CachedCustomer(updated));
+    }
+
+    @Test
+    void shouldReplaceMissingEntryWhenCustomerIsCreated() {
+        // given
+        node.fillMissing(5L);
+        Customer created = new Customer(5L, "Filipe", "filipe@gmail.com", "BE");
+        // when
+        node.put(created);
+        // then
+        assertThat(node.get(5L)).contains(new CachedCustomer(created));
+    }
+
+    @Test
+    void shouldTreatCorruptRemoteEntryAsMiss() {
+        // given
+        redisTemplate.opsForValue().set(new CustomerCacheProperties().getKeyPrefix() + 6, "{not json");
+        // when
+        Optional<CachedCustomer> cached = node.get(6L);
+        // then
+        assertThat(cached).isEmpty();
+    }
+
+    private static void awaitCached(TwoLevelCustomerCache cache, Long id, CachedCustomer expected)
+            throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (!cache.get(id).equals(Optional.of(expected)) && Instant.now().isBefore(deadline)) {
+            Thread.sleep(50);
+        }
+    }
+}
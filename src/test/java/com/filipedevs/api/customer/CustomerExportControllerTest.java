@@ -0,0 +1,58 @@
+package com.filipedevs.api.customer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CustomerController.class)
+class CustomerExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    CustomerService customerService;
+
+    @MockBean
+    CustomerExportService customerExportService;
+
+    @Test
+    void shouldStreamExportWithConfiguredTimeout() throws Exception {
+        // given
+        // a slow export, the rows keep coming for a while before the COPY ends
+        when(customerExportService.exportCsv(any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("id,name,email,address\n".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(500);
+            outputStream.write("1,name,email@test.com,address\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        // when
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/customers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // then
+        // the export uses the customer.export.timeout from application.yml, not the 30s container default
+        assertThat(mvcResult.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(Duration.ofHours(6).toMillis());
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,name,email,address\n1,name,email@test.com,address\n"));
+    }
+}
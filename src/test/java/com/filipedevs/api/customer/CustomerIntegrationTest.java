@@ -192,4 +192,36 @@ class CustomerIntegrationTest extends AbstractTestcontainersTest {
                 .isEqualTo(HttpStatus.NOT_FOUND);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldExportCustomersAsCsv() {
+        // given, first we create a customer
+        CreateCustomerRequest request =
+                new CreateCustomerRequest(
+                        "name",
+                        "email" + UUID.randomUUID() + "@gmail.com", //unique
+                        "address"
+                );
+        ResponseEntity<Void> createCustomerResponse = testRestTemplate.exchange(
+                API_CUSTOMERS_PATH,
+                HttpMethod.POST,
+                new HttpEntity<>(request),
+                Void.class);
+        assertThat(createCustomerResponse.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        // when, export the whole customer table
+        ResponseEntity<String> exportResponse = testRestTemplate.exchange(
+                API_CUSTOMERS_PATH + "/export",
+                HttpMethod.GET,
+                null,
+                String.class
+        );
+        // then
+        assertThat(exportResponse.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        String csv = Objects.requireNonNull(exportResponse.getBody());
+        // the header comes first and the customer we created is one of the rows
+        assertTrue(csv.startsWith("id,name,email,address"));
+        assertTrue(csv.contains(",name," + request.getEmail() + ",address"));
+    }
+}
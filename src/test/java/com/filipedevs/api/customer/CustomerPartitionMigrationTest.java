@@ -0,0 +1,124 @@
+package com.filipedevs.api.customer;
+
+import com.filipedevs.api.AbstractTestcontainersTest;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerPartitionMigrationTest extends AbstractTestcontainersTest {
+
+    // every test migrates its own schema, the Spring tests keep using the public one
+    static final String SCHEMA = "partition_migration";
+
+    DriverManagerDataSource dataSource;
+
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        // the table as ddl-auto creates it for the Customer entity
+        jdbcTemplate.execute("CREATE TABLE " + SCHEMA + ".customer (" +
+                "id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "address varchar(255), email varchar(255), name varchar(255))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void shouldConvertPopulatedCustomerTableAndKeepIds() {
+        // given
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".customer (id, name, email, address) VALUES " +
+                "(1, 'Filipe', 'filipe@gmail.com', 'BE'), (7, 'Ana', 'ana@gmail.com', 'PT'), " +
+                "(42, 'Jose', 'jose@gmail.com', 'ES')");
+        // when
+        flyway(1000).migrate();
+        // then
+        List<Map<String, Object>> customers = jdbcTemplate.queryForList(
+                "SELECT id, email FROM " + SCHEMA + ".customer ORDER BY id");
+        assertThat(customers)
+                .extracting(customer -> customer.get("id"))
+                .containsExactly(1L, 7L, 42L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = '" + SCHEMA + ".customer'::regclass",
+                Integer.class))
+                .isEqualTo(8);
+        // new customers continue after the highest converted id
+        Long id = jdbcTemplate.queryForObject("INSERT INTO " + SCHEMA + ".customer (name, email, address) " +
+                "VALUES ('Maria', 'maria@gmail.com', 'FR') RETURNING id", Long.class);
+        assertThat(id).isGreaterThan(42L);
+    }
+
+    @Test
+    void shouldRefuseInPlaceConversionOfTableOverLimit() {
+        // given
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".customer (name, email, address) VALUES " +
+                "('Filipe', 'filipe@gmail.com', 'BE'), ('Ana', 'ana@gmail.com', 'PT'), " +
+                "('Jose', 'jose@gmail.com', 'ES')");
+        // when
+        // then
+        assertThatThrownBy(() -> flyway(2).migrate())
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("convert it offline");
+        // the migration rolled back, the original table is untouched
+        assertThat(jdbcTemplate.queryForObject("SELECT relkind FROM pg_class WHERE oid = '" + SCHEMA +
+                ".customer'::regclass", String.class))
+                .isEqualTo("r");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + SCHEMA + ".customer", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectDuplicateEmailAcrossPartitions() {
+        // given
+        flyway(1000).migrate();
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".customer (name, email, address) VALUES " +
+                "('Filipe', 'filipe@gmail.com', 'BE'), ('Ana', 'ana@gmail.com', 'PT')");
+        // an update that keeps the email and a changed email are both accepted
+        jdbcTemplate.update("UPDATE " + SCHEMA + ".customer SET name = 'Filipe D', email = 'filipe@gmail.com' " +
+                "WHERE email = 'filipe@gmail.com'");
+        jdbcTemplate.update("UPDATE " + SCHEMA + ".customer SET email = 'ana.p@gmail.com' WHERE email = 'ana@gmail.com'");
+        // when
+        // then
+        // the new id can land on any partition, the email is still checked against all of them
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO " + SCHEMA + ".customer (name, email, address) " +
+                "VALUES ('Other', 'filipe@gmail.com', 'FR')"))
+                .isInstanceOf(DuplicateKeyException.class);
+        // the email released by the update can be taken again
+        jdbcTemplate.update("INSERT INTO " + SCHEMA + ".customer (name, email, address) " +
+                "VALUES ('Ana', 'ana@gmail.com', 'PT')");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + SCHEMA + ".customer_email", Integer.class))
+                .isEqualTo(3);
+    }
+
+    private Flyway flyway(int maxInPlaceRows) {
+        // same settings as the partitioned profile
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .locations("classpath:db/partitioned")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .placeholders(Map.of(
+                        "customerPartitions", "8",
+                        "maxInPlaceRows", String.valueOf(maxInPlaceRows)))
+                .load();
+    }
+}
@@ -0,0 +1,81 @@
+package com.filipedevs.api.customer;
+
+import com.filipedevs.api.AbstractTestcontainersTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Testcontainers
+@ActiveProfiles("partitioned")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CustomerExportService.class)
+class CustomerPartitionedRepositoryTest extends AbstractTestcontainersTest {
+
+    @Autowired
+    CustomerRepository underTest;
+
+    @Autowired
+    CustomerExportService customerExportService;
+
+    @AfterEach
+    void tearDown() {
+        underTest.deleteAll();
+    }
+
+    @Test
+    void shouldReturnOneSizePerPartition() {
+        // given
+        // when
+        List<CustomerPartitionSize> partitionSizes = underTest.findPartitionSizes();
+        // then
+        // the migration creates 8 hash partitions by default
+        assertThat(partitionSizes)
+                .extracting(CustomerPartitionSize::getPartitionName)
+                .containsExactly("customer_p0", "customer_p1", "customer_p2", "customer_p3",
+                        "customer_p4", "customer_p5", "customer_p6", "customer_p7");
+    }
+
+    @Test
+    void shouldGenerateIdsAndFindCustomersInPartitionedTable() {
+        // given
+        Customer customer = underTest.save(new Customer("Filipe", "filipe@gmail.com", "BE"));
+        // when
+        Optional<Customer> customerById = underTest.findById(customer.getId());
+        Optional<Customer> customerByEmail = underTest.findByEmail("filipe@gmail.com");
+        // then
+        assertThat(customer.getId()).isNotNull();
+        assertTrue(customerById.isPresent());
+        assertTrue(customerByEmail.isPresent());
+    }
+
+    @Test
+    // the export reads through its own connection, the customer has to be committed
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldExportPartitionedTableAsCsv() {
+        // given
+        Customer customer = underTest.save(new Customer("Filipe", "filipe@gmail.com", "BE"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        long rows = customerExportService.exportCsv(outputStream);
+        // then
+        assertThat(rows).isEqualTo(1);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8).lines())
+                .containsExactly("id,name,email,address", customer.getId() + ",Filipe,filipe@gmail.com,BE");
+    }
+}
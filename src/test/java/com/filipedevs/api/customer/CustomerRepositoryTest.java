@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -52,4 +53,13 @@ class CustomerRepositoryTest extends AbstractTestcontainersTest {
         // then
         assertThat(customerByEmail).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotReturnPartitionSizesWhenTableIsNotPartitioned() {
+        // given
+        // when
+        List<CustomerPartitionSize> partitionSizes = underTest.findPartitionSizes();
+        // then
+        assertTrue(partitionSizes.isEmpty());
+    }
+}
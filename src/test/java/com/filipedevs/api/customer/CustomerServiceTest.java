@@ -1,7 +1,13 @@
 package com.filipedevs.api.customer;
 
+import com.filipedevs.api.cache.CachedCustomer;
+import com.filipedevs.api.cache.CustomerCache;
+import com.filipedevs.api.emailfilter.CustomerEmailFilter;
+import com.filipedevs.api.emailfilter.EmailAdditionLog;
+import com.filipedevs.api.emailfilter.EmailFilterProperties;
 import com.filipedevs.api.exception.CustomerEmailUnavailableException;
 import com.filipedevs.api.exception.CustomerNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,8 +15,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -25,14 +33,29 @@ class CustomerServiceTest {
     @Mock
     CustomerRepository customerRepository;
 
+    // an unstubbed cache returns Optional.empty(), every lookup is a cache miss unless a test says otherwise
+    @Mock
+    CustomerCache customerCache;
+
+    @Mock
+    EmailAdditionLog emailAdditionLog;
+
     // This tells Mockito to capture arguments of type Customer that are passed to mock methods
     @Captor
     ArgumentCaptor<Customer> customerArgumentCaptor;
 
-    // Initialize the CustomerService with the mocked CustomerRepository before each test
+    // Initialize the CustomerService with the mocked CustomerRepository and CustomerCache before each test
+    // the email filter is disabled, every email might exist and is looked up in the repository
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerRepository);
+        underTest = new CustomerService(customerRepository, customerCache, emailFilter(false));
+    }
+
+    CustomerEmailFilter emailFilter(boolean enabled) {
+        EmailFilterProperties properties = new EmailFilterProperties();
+        properties.setEnabled(enabled);
+        properties.setExpectedEmails(1_000);
+        return new CustomerEmailFilter(properties, customerRepository, emailAdditionLog, new SimpleMeterRegistry());
     }
 
     @Test
@@ -43,6 +66,14 @@ class CustomerServiceTest {
         verify(customerRepository).findAll();
     }
 
+    @Test
+    void shouldGetPartitionSizes() {
+        // when
+        underTest.getPartitionSizes();
+        // then
+        verify(customerRepository).findPartitionSizes();
+    }
+
     @Test
     void shouldCreateCustomer() {
         // given
@@ -85,6 +116,23 @@ class CustomerServiceTest {
                 .hasMessageContaining("The email " + createCustomerRequest.getEmail() + " is already taken.");
     }
 
+    @Test
+    void shouldThrowEmailUnavailableExceptionWhenUniqueIndexRejectsEmail() {
+        // given
+        CreateCustomerRequest createCustomerRequest = new CreateCustomerRequest(
+                "Filipe",
+                "filipe@gmail.com",
+                "BE");
+        // another request wrote the same email between the check and the insert
+        when(customerRepository.save(any())).thenThrow(new DataIntegrityViolationException("customer_email_key"));
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.createCustomer(createCustomerRequest))
+                .isInstanceOf(CustomerEmailUnavailableException.class)
+                .hasMessageContaining("The email " + createCustomerRequest.getEmail() + " is already taken.");
+        verify(customerCache, never()).put(any());
+    }
+
     @Test
     void shouldThrowNotFoundExceptionWhenGivenInvalidIdWhileUpdateCustomer() {
         // given
@@ -221,8 +269,8 @@ class CustomerServiceTest {
     void shouldThrowNotFoundWhenGivenIdDoesNotExistWhileDeleteCustomer() {
         // given
         long id = 5L;
-        when(customerRepository.existsById(id))
-                .thenReturn(false);
+        when(customerRepository.findEmailById(id))
+                .thenReturn(Optional.empty());
         // when
         // then
         assertThatThrownBy(() ->
@@ -236,12 +284,130 @@ class CustomerServiceTest {
     void shouldDeleteCustomer() {
         //given
         long id = 5L;
-        when(customerRepository.existsById(id))
-                .thenReturn(true);
+        when(customerRepository.findEmailById(id))
+                .thenReturn(Optional.of("filipe@gmail.com"));
         //when
         underTest.deleteCustomer(id);
         //then
         verify(customerRepository).deleteById(id);
 
     }
+
+    @Test
+    void shouldReturnCachedCustomerWithoutQueryingDatabase() {
+        // given
+        long id = 5L;
+        Customer customer = new Customer(id, "Filipe", "filipe@gmail.com", "BE");
+        when(customerCache.get(id)).thenReturn(Optional.of(new CachedCustomer(customer)));
+        // when
+        Customer customerById = underTest.getCustomerById(id);
+        // then
+        assertThat(customerById).isEqualTo(customer);
+        verify(customerRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldCacheCustomerWhenLoadedFromDatabase() {
+        // given
+        long id = 5L;
+        Customer customer = new Customer(id, "Filipe", "filipe@gmail.com", "BE");
+        when(customerRepository.findById(id)).thenReturn(Optional.of(customer));
+        // when
+        underTest.getCustomerById(id);
+        // then
+        verify(customerCache).fill(customer);
+    }
+
+    @Test
+    void shouldCacheMissingIdWhenCustomerIsNotFound() {
+        // given
+        long id = 5L;
+        when(customerRepository.findById(id)).thenReturn(Optional.empty());
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCustomerById(id))
+                .isInstanceOf(CustomerNotFoundException.class);
+        verify(customerCache).fillMissing(id);
+    }
+
+    @Test
+    void shouldThrowNotFoundWithoutQueryingDatabaseWhenIdIsCachedAsMissing() {
+        // given
+        long id = 5L;
+        when(customerCache.get(id)).thenReturn(Optional.of(CachedCustomer.missing()));
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getCustomerById(id))
+                .isInstanceOf(CustomerNotFoundException.class);
+        assertThatThrownBy(() -> underTest.updateCustomer(id, "Filipe", null, null))
+                .isInstanceOf(CustomerNotFoundException.class);
+        assertThatThrownBy(() -> underTest.deleteCustomer(id))
+                .isInstanceOf(CustomerNotFoundException.class);
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void shouldPutUpdatedCustomerInCacheWhenUpdatingCustomer() {
+        // given
+        long id = 5L;
+        Customer customer = new Customer(id, "Filipe", "filipe@gmail.com", "BE");
+        when(customerRepository.findById(id)).thenReturn(Optional.of(customer));
+        // when
+        underTest.updateCustomer(id, "Filipe Dev", null, null);
+        // then
+        // the other nodes must not keep serving the old name
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerCache).put(customerArgumentCaptor.capture());
+        assertThat(customerArgumentCaptor.getValue().getName()).isEqualTo("Filipe Dev");
+        verify(customerCache, never()).fill(any());
+    }
+
+    @Test
+    void shouldCacheDeletedCustomerAsMissing() {
+        // given
+        long id = 5L;
+        when(customerRepository.findEmailById(id)).thenReturn(Optional.of("filipe@gmail.com"));
+        // when
+        underTest.deleteCustomer(id);
+        // then
+        verify(customerCache).putMissing(id);
+    }
+
+    @Test
+    void shouldSkipEmailLookupWhenEmailFilterHasDefiniteMiss() {
+        // given
+        // the filter is loaded with the only existing email
+        when(customerRepository.streamAllEmails()).thenReturn(Stream.of("filipe@gmail.com"));
+        CustomerEmailFilter customerEmailFilter = emailFilter(true);
+        customerEmailFilter.load();
+        underTest = new CustomerService(customerRepository, customerCache, customerEmailFilter);
+        CreateCustomerRequest createCustomerRequest = new CreateCustomerRequest(
+                "Jason",
+                "jason@gmail.com",
+                "US");
+        // when
+        underTest.createCustomer(createCustomerRequest);
+        // then
+        verify(customerRepository, never()).findByEmail(anyString());
+        verify(customerRepository).save(any());
+    }
+
+    @Test
+    void shouldLookUpEmailWhenEmailFilterHasPossibleHit() {
+        // given
+        when(customerRepository.streamAllEmails()).thenReturn(Stream.of("filipe@gmail.com"));
+        CustomerEmailFilter customerEmailFilter = emailFilter(true);
+        customerEmailFilter.load();
+        underTest = new CustomerService(customerRepository, customerCache, customerEmailFilter);
+        CreateCustomerRequest createCustomerRequest = new CreateCustomerRequest(
+                "Filipe",
+                "filipe@gmail.com",
+                "BE");
+        when(customerRepository.findByEmail("filipe@gmail.com")).thenReturn(Optional.of(new Customer()));
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.createCustomer(createCustomerRequest))
+                .isInstanceOf(CustomerEmailUnavailableException.class);
+        verify(customerRepository, never()).save(any());
+    }
 }
@@ -0,0 +1,75 @@
+package com.filipedevs.api.emailfilter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingBloomFilterTest {
+
+    static final int EMAILS = 10_000;
+
+    CountingBloomFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CountingBloomFilter(EMAILS, 0.01);
+    }
+
+    @Test
+    void shouldContainEveryAddedEmail() {
+        // given
+        IntStream.range(0, EMAILS).forEach(i -> underTest.add("customer" + i + "@gmail.com"));
+        // then
+        // a Bloom filter never has false negatives
+        assertThat(IntStream.range(0, EMAILS))
+                .allMatch(i -> underTest.mightContain("customer" + i + "@gmail.com"));
+    }
+
+    @Test
+    void shouldKeepFalsePositiveRateCloseToConfiguredRate() {
+        // given
+        IntStream.range(0, EMAILS).forEach(i -> underTest.add("customer" + i + "@gmail.com"));
+        // when
+        long falsePositives = IntStream.range(0, EMAILS)
+                .filter(i -> underTest.mightContain("unknown" + i + "@gmail.com"))
+                .count();
+        // then
+        assertThat((double) falsePositives / EMAILS).isLessThan(0.02);
+        assertThat(underTest.estimatedFalsePositiveRate()).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldNotContainRemovedEmail() {
+        // given
+        underTest.add("filipe@gmail.com");
+        underTest.add("jason@gmail.com");
+        // when
+        underTest.remove("filipe@gmail.com");
+        // then
+        assertThat(underTest.mightContain("filipe@gmail.com")).isFalse();
+        assertThat(underTest.mightContain("jason@gmail.com")).isTrue();
+    }
+
+    @Test
+    void shouldEstimateFalsePositiveRateFromUsedCounters() {
+        // given
+        underTest.add("filipe@gmail.com");
+        underTest.add("filipe@gmail.com");
+        double estimated = underTest.estimatedFalsePositiveRate();
+        // when
+        underTest.remove("filipe@gmail.com");
+        underTest.remove("filipe@gmail.com");
+        // then
+        assertThat(estimated).isGreaterThan(0);
+        assertThat(underTest.estimatedFalsePositiveRate()).isZero();
+    }
+
+    @Test
+    void shouldPackCountersInPrimitiveArray() {
+        // 10k emails at 1% need about 96k counters of 4 bits, about 48KB
+        assertThat(underTest.memoryBytes()).isBetween(40_000L, 60_000L);
+    }
+}
@@ -0,0 +1,188 @@
+package com.filipedevs.api.emailfilter;
+
+import com.filipedevs.api.customer.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerEmailFilterTest {
+
+    @Mock
+    CustomerRepository customerRepository;
+
+    InMemoryEmailAdditionLog additionLog;
+
+    // two replicas sharing the same log
+    CustomerEmailFilter node;
+
+    CustomerEmailFilter otherNode;
+
+    @BeforeEach
+    void setUp() {
+        additionLog = new InMemoryEmailAdditionLog();
+        when(customerRepository.streamAllEmails()).thenAnswer(invocation -> Stream.of("filipe@gmail.com"));
+        node = emailFilter(1_000);
+        otherNode = emailFilter(1_000);
+        node.load();
+        otherNode.load();
+    }
+
+    @Test
+    void shouldReportEmailAddedByAnotherNodeAsPossiblyTaken() {
+        // given
+        node.add("jason@gmail.com");
+        additionLog.deliver();
+        // when
+        boolean mightExist = otherNode.mightExist("jason@gmail.com");
+        // then
+        assertThat(mightExist).isTrue();
+    }
+
+    @Test
+    void shouldReportDefiniteMissOnceAdditionsAreRead() {
+        // given
+        node.add("jason@gmail.com");
+        additionLog.deliver();
+        // when
+        boolean mightExist = otherNode.mightExist("maria@gmail.com");
+        // then
+        assertThat(mightExist).isFalse();
+        assertThat(otherNode.mightExist("filipe@gmail.com")).isTrue();
+    }
+
+    @Test
+    void shouldReportPossibleHitWhileAdditionsCannotBeRead() {
+        // given
+        additionLog.failFollowers(new IllegalStateException("Redis is down"));
+        // when
+        boolean mightExist = otherNode.mightExist("maria@gmail.com");
+        // then
+        // an email added meanwhile by another node could be missing from the filter
+        assertThat(mightExist).isTrue();
+    }
+
+    @Test
+    void shouldFailAddWhenEmailCannotBeRecorded() {
+        // given
+        additionLog.available = false;
+        // when
+        // then
+        // the write must not happen, the other nodes would never learn about the email
+        assertThatThrownBy(() -> node.add("jason@gmail.com"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldReadAdditionsOfOtherNodesBeforeRemoving() {
+        // given
+        // so small that every two emails share counters
+        CustomerEmailFilter nodeA = emailFilter(1);
+        CustomerEmailFilter nodeB = emailFilter(1);
+        nodeA.load();
+        nodeB.load();
+        // created on node B, node A has not read it in the background yet
+        nodeB.add("jason@gmail.com");
+        // when
+        nodeA.remove("jason@gmail.com");
+        // then
+        // removing an email node A never added would have cleared counters of the remaining one
+        assertThat(nodeA.mightExist("filipe@gmail.com")).isTrue();
+    }
+
+    @Test
+    void shouldKeepEmailWhenAdditionsCannotBeReadBeforeRemoving() {
+        // given
+        otherNode.add("jason@gmail.com");
+        additionLog.available = false;
+        // when
+        node.remove("jason@gmail.com");
+        // then
+        additionLog.available = true;
+        additionLog.deliver();
+        // a false positive instead of counters taken from other emails
+        assertThat(node.mightExist("jason@gmail.com")).isTrue();
+        assertThat(node.mightExist("filipe@gmail.com")).isTrue();
+    }
+
+    private CustomerEmailFilter emailFilter(long expectedEmails) {
+        EmailFilterProperties properties = new EmailFilterProperties();
+        properties.setEnabled(true);
+        properties.setExpectedEmails(expectedEmails);
+        return new CustomerEmailFilter(properties, customerRepository, additionLog, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Followers only get the additions when the test calls {@link #deliver()}, like a background read lagging behind.
+     */
+    static class InMemoryEmailAdditionLog implements EmailAdditionLog {
+
+        final List<EmailAddition> additions = new ArrayList<>();
+
+        final List<Follower> followers = new ArrayList<>();
+
+        boolean available = true;
+
+        @Override
+        public synchronized void append(String node, String email) {
+            checkAvailable();
+            additions.add(new EmailAddition(System.currentTimeMillis() + "-" + additions.size(), node, email));
+        }
+
+        @Override
+        public synchronized List<EmailAddition> readAfter(String id, int count) {
+            checkAvailable();
+            return additions.stream()
+                    .filter(addition -> compare(addition.id(), id) > 0)
+                    .limit(count)
+                    .toList();
+        }
+
+        @Override
+        public synchronized void follow(String id, Consumer<EmailAddition> listener,
+                                        Consumer<Throwable> errorHandler) {
+            followers.add(new Follower(listener, errorHandler, new String[]{id}));
+        }
+
+        synchronized void deliver() {
+            for (Follower follower : followers) {
+                for (EmailAddition addition : readAfter(follower.readId()[0], Integer.MAX_VALUE)) {
+                    follower.listener().accept(addition);
+                    follower.readId()[0] = addition.id();
+                }
+            }
+        }
+
+        synchronized void failFollowers(Throwable e) {
+            followers.forEach(follower -> follower.errorHandler().accept(e));
+        }
+
+        private void checkAvailable() {
+            if (!available) {
+                throw new IllegalStateException("Redis is down");
+            }
+        }
+
+        private static int compare(String id, String other) {
+            String[] parts = id.split("-");
+            String[] otherParts = other.split("-");
+            int byTime = Long.compare(Long.parseLong(parts[0]), Long.parseLong(otherParts[0]));
+            return byTime != 0 ? byTime : Long.compare(Long.parseLong(parts[1]), Long.parseLong(otherParts[1]));
+        }
+
+        record Follower(Consumer<EmailAddition> listener, Consumer<Throwable> errorHandler, String[] readId) {
+        }
+    }
+}
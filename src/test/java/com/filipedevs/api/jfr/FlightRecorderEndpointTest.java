@@ -0,0 +1,61 @@
+package com.filipedevs.api.jfr;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FlightRecorderEndpointTest {
+
+    @Mock
+    FlightRecorderService flightRecorderService;
+
+    FlightRecorderEndpoint underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FlightRecorderEndpoint(flightRecorderService);
+    }
+
+    @Test
+    void shouldAnswerConflictWhenRecordingIsAlreadyRunning() {
+        // given
+        when(flightRecorderService.start("twice"))
+                .thenThrow(new IllegalStateException("Recording twice is already running"));
+        // when
+        WebEndpointResponse<Object> response = underTest.start("twice");
+        // then
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getBody()).isEqualTo("Recording twice is already running");
+    }
+
+    @Test
+    void shouldAnswerConflictWhenStoppingContinuousRecording() {
+        // given
+        when(flightRecorderService.stop(FlightRecorderService.CONTINUOUS_RECORDING))
+                .thenThrow(new IllegalStateException("The continuous recording cannot be stopped, dump it instead"));
+        // when
+        WebEndpointResponse<String> response = underTest.stop(FlightRecorderService.CONTINUOUS_RECORDING);
+        // then
+        assertThat(response.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void shouldAnswerBadRequestForInvalidNames() {
+        // given
+        when(flightRecorderService.start("../escape")).thenThrow(new IllegalArgumentException("Invalid"));
+        when(flightRecorderService.dump("../escape")).thenThrow(new IllegalArgumentException("Invalid"));
+        when(flightRecorderService.stop("../escape")).thenThrow(new IllegalArgumentException("Invalid"));
+        // when
+        // then
+        assertThat(underTest.start("../escape").getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(underTest.dump("../escape").getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(underTest.stop("../escape").getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+}
@@ -0,0 +1,167 @@
+package com.filipedevs.api.jfr;
+
+import com.filipedevs.api.exception.CustomerNotFoundException;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderServiceTest {
+
+    FlightRecorderService underTest;
+
+    FlightRecorderProperties properties;
+
+    @TempDir
+    Path dumpDirectory;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FlightRecorderProperties();
+        properties.setDumpDirectory(dumpDirectory);
+        underTest = new FlightRecorderService(properties);
+    }
+
+    @Test
+    void shouldRecordCustomerEvents() throws Exception {
+        // given
+        underTest.start("test");
+        // when
+        CustomerOperationEvent event = CustomerOperationEvent.begin("getCustomerById", 5L);
+        event.setOutcome(CustomerOperationEvent.CACHE);
+        event.setRowCount(1);
+        event.commit();
+        CustomerExceptionEvent.record(new CustomerNotFoundException("Customer with id 6 does not exist"),
+                404, "/api/v1/customers/6");
+        Optional<Path> dump = underTest.stop("test");
+        // then
+        assertThat(dump).isPresent();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.get());
+
+        RecordedEvent operation = events.stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.filipedevs.api.CustomerOperation"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(operation.getString("operation")).isEqualTo("getCustomerById");
+        assertThat(operation.getLong("customerId")).isEqualTo(5L);
+        assertThat(operation.getString("outcome")).isEqualTo(CustomerOperationEvent.CACHE);
+
+        RecordedEvent exception = events.stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.filipedevs.api.CustomerException"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(exception.getInt("status")).isEqualTo(404);
+        assertThat(exception.getString("path")).isEqualTo("/api/v1/customers/6");
+    }
+
+    @Test
+    void shouldDumpRunningRecordingWithoutStoppingIt() {
+        // given
+        underTest.start("running");
+        // when
+        Optional<Path> dump = underTest.dump("running");
+        // then
+        assertThat(dump).isPresent();
+        assertThat(Files.exists(dump.get())).isTrue();
+        assertThat(underTest.getRecordings())
+                .anyMatch(recording -> recording.name().equals("running") && recording.state().equals("RUNNING"));
+        underTest.stop("running");
+    }
+
+    @Test
+    void shouldNotStartRecordingTwice() {
+        // given
+        underTest.start("twice");
+        // then
+        assertThatThrownBy(() -> underTest.start("twice"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Recording twice is already running");
+        underTest.stop("twice");
+    }
+
+    @Test
+    void shouldReturnEmptyWhenRecordingDoesNotExist() {
+        assertThat(underTest.dump("unknown")).isEmpty();
+        assertThat(underTest.stop("unknown")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectNamesThatCouldLeaveDumpDirectory() {
+        assertThatThrownBy(() -> underTest.start("../escape"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> underTest.dump("../../etc/cron.d/job"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> underTest.stop("/tmp/escape"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldKeepOnlyLatestDumps() throws Exception {
+        // given
+        properties.setMaxDumps(2);
+        Path oldest = Files.createFile(dumpDirectory.resolve("old-20240101-000000.jfr"));
+        Files.setLastModifiedTime(oldest, FileTime.fromMillis(1_000));
+        Path older = Files.createFile(dumpDirectory.resolve("old-20240102-000000.jfr"));
+        Files.setLastModifiedTime(older, FileTime.fromMillis(2_000));
+        underTest.start("pruned");
+        // when
+        Optional<Path> dump = underTest.dump("pruned");
+        // then
+        assertThat(dump).isPresent();
+        try (Stream<Path> files = Files.list(dumpDirectory)) {
+            assertThat(files).containsExactlyInAnyOrder(dump.get(), older);
+        }
+        underTest.stop("pruned");
+    }
+
+    @Test
+    void shouldWriteContinuousRecordingToDumpDirectoryOnExit() {
+        // given
+        closeContinuousRecording();
+        // when
+        underTest.startContinuousRecording();
+        // then
+        try {
+            Recording continuous = continuousRecording().orElseThrow();
+            assertThat(continuous.getDumpOnExit()).isTrue();
+            assertThat(continuous.getDestination().getParent()).isEqualTo(dumpDirectory);
+        } finally {
+            closeContinuousRecording();
+        }
+    }
+
+    @Test
+    void shouldRefuseToStopContinuousRecording() {
+        assertThatThrownBy(() -> underTest.stop(FlightRecorderService.CONTINUOUS_RECORDING))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Optional<Recording> continuousRecording() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getName().equals(FlightRecorderService.CONTINUOUS_RECORDING))
+                .filter(recording -> recording.getState() != RecordingState.CLOSED)
+                .findFirst();
+    }
+
+    private static void closeContinuousRecording() {
+        // another test of the same JVM may have started the application, and with it the continuous recording
+        continuousRecording().ifPresent(recording -> {
+            recording.setDumpOnExit(false);
+            recording.close();
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.filipedevs.api.performance;
+
+import com.filipedevs.api.AbstractTestcontainersTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Runs the application on a random port against its own Postgres container and sets up the load generator,
+ * subclasses seed the customers they need in their own {@code @BeforeAll}, which runs after this one.
+ * Only runs with {@code ./mvnw test -Pperformance}.
+ */
+@Tag("performance")
+// each test class gets its own Postgres container, a cached context would point at a stopped one
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=warn"})
+abstract class AbstractLoadTest extends AbstractTestcontainersTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    DataSource dataSource;
+
+    protected final PerformanceBaseline baseline = PerformanceBaseline.load();
+
+    protected FixedRateLoadGenerator loadGenerator;
+
+    protected CustomerRequests requests;
+
+    protected CustomerSeeder seeder;
+
+    @BeforeAll
+    void setUpLoadGenerator() {
+        loadGenerator = new FixedRateLoadGenerator(HttpClient.newBuilder()
+                .version(httpVersion())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build());
+        requests = new CustomerRequests(port);
+        seeder = new CustomerSeeder(dataSource);
+    }
+
+    /**
+     * HTTP version of the load generator, HTTP/2 with HTTP/1.1 fallback unless overridden.
+     */
+    protected HttpClient.Version httpVersion() {
+        return HttpClient.Version.HTTP_2;
+    }
+}
@@ -0,0 +1,26 @@
+package com.filipedevs.api.performance;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * The list endpoint serializes the whole table on every call, against the million customers of
+ * {@link CustomerLoadTest} each response would be about 100MB. It is measured on a table sized like a
+ * regular tenant instead ({@code -Dperformance.list.customers}).
+ */
+class CustomerListLoadTest extends AbstractLoadTest {
+
+    private static final long CUSTOMERS = Long.getLong("performance.list.customers", 10_000);
+
+    @BeforeAll
+    void seedCustomers() throws Exception {
+        seeder.seed(CUSTOMERS);
+    }
+
+    @Test
+    void listCustomers() {
+        baseline.verify(loadGenerator.run(LoadProfile.of("list", 20, Duration.ofSeconds(30)), requests::list));
+    }
+}
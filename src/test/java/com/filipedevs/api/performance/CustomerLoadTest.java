@@ -0,0 +1,93 @@
+package com.filipedevs.api.performance;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Drives the customer endpoints at a fixed arrival rate against a seeded database and fails when p99 latency
+ * or throughput regress compared to the stored baseline. Run with {@code ./mvnw test -Pperformance}.
+ * The list endpoint returns the whole table, it is measured on a smaller one by {@link CustomerListLoadTest}.
+ */
+class CustomerLoadTest extends AbstractLoadTest {
+
+    private static final long CUSTOMERS = Long.getLong("performance.customers", 1_000_000);
+
+    // ids below readIdLimit are read and updated, the ones above are consumed by the delete scenarios
+    private long minId;
+    private long readIdLimit;
+    private AtomicLong nextIdToDelete;
+
+    @BeforeAll
+    void seedCustomers() throws Exception {
+        long[] ids = seeder.seed(CUSTOMERS);
+        minId = ids[0];
+        readIdLimit = ids[0] + (ids[1] - ids[0]) * 9 / 10;
+        nextIdToDelete = new AtomicLong(ids[1]);
+    }
+
+    @Test
+    void getCustomer() {
+        run(LoadProfile.of("get", 500, Duration.ofSeconds(60)), this::getRequest);
+    }
+
+    @Test
+    void createCustomer() {
+        run(LoadProfile.of("create", 200, Duration.ofSeconds(30)), this::createRequest);
+    }
+
+    @Test
+    void updateCustomer() {
+        run(LoadProfile.of("update", 200, Duration.ofSeconds(30)), this::updateRequest);
+    }
+
+    @Test
+    void deleteCustomer() {
+        run(LoadProfile.of("delete", 100, Duration.ofSeconds(30)), this::deleteRequest);
+    }
+
+    @Test
+    void mixedWorkload() {
+        // read heavy mix: 80% get, 10% create, 8% update, 2% delete
+        run(LoadProfile.of("mixed", 300, Duration.ofSeconds(60)), () -> {
+            int dice = ThreadLocalRandom.current().nextInt(100);
+            if (dice < 80) {
+                return getRequest();
+            } else if (dice < 90) {
+                return createRequest();
+            } else if (dice < 98) {
+                return updateRequest();
+            }
+            return deleteRequest();
+        });
+    }
+
+    private void run(LoadProfile profile, Supplier<HttpRequest> requests) {
+        baseline.verify(loadGenerator.run(profile, requests));
+    }
+
+    private HttpRequest getRequest() {
+        return requests.get(randomReadId());
+    }
+
+    private HttpRequest createRequest() {
+        return requests.create();
+    }
+
+    private HttpRequest updateRequest() {
+        return requests.update(randomReadId());
+    }
+
+    private HttpRequest deleteRequest() {
+        return requests.delete(nextIdToDelete.getAndDecrement());
+    }
+
+    private long randomReadId() {
+        return ThreadLocalRandom.current().nextLong(minId, readIdLimit);
+    }
+}
@@ -0,0 +1,50 @@
+package com.filipedevs.api.performance;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the requests of the customer endpoints used by the load tests.
+ */
+class CustomerRequests {
+
+    private final String baseUri;
+
+    CustomerRequests(int port) {
+        this.baseUri = "http://localhost:" + port + "/api/v1/customers";
+    }
+
+    HttpRequest list() {
+        return HttpRequest.newBuilder(uri("")).GET().build();
+    }
+
+    HttpRequest get(long id) {
+        return HttpRequest.newBuilder(uri("/" + id)).GET().build();
+    }
+
+    HttpRequest create() {
+        String body = """
+                {"name": "Load Test", "email": "load-%s@example.com", "address": "BE"}
+                """.formatted(UUID.randomUUID());
+        return HttpRequest.newBuilder(uri(""))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    HttpRequest update(long id) {
+        return HttpRequest.newBuilder(uri("/" + id + "?name=Updated" + ThreadLocalRandom.current().nextInt()))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    HttpRequest delete(long id) {
+        return HttpRequest.newBuilder(uri("/" + id)).DELETE().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUri + path);
+    }
+}
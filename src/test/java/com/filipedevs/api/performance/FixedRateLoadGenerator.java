@@ -0,0 +1,69 @@
+package com.filipedevs.api.performance;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests at a fixed arrival rate, independently of how fast the server answers (open model).
+ * Latency is measured from the time a request was scheduled to be sent, not from when it was actually sent,
+ * so a stalled server shows up in the percentiles instead of silently lowering the load (coordinated omission).
+ */
+class FixedRateLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient httpClient;
+
+    FixedRateLoadGenerator(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    LoadResult run(LoadProfile profile, Supplier<HttpRequest> requests) {
+        // the warm-up phase lets the JIT and the connection pools settle, its numbers are thrown away
+        drive(profile.requestsPerSecond(), profile.warmUp().toNanos(), requests,
+                new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3), new AtomicLong());
+
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        AtomicLong errors = new AtomicLong();
+        long elapsedNanos = drive(profile.requestsPerSecond(), profile.duration().toNanos(), requests, latencies, errors);
+        return LoadResult.of(profile.scenario(), latencies, errors.get(), elapsedNanos);
+    }
+
+    private long drive(int requestsPerSecond, long durationNanos, Supplier<HttpRequest> requests,
+                       Histogram latencies, AtomicLong errors) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long total = durationNanos / intervalNanos;
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(httpClient.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencies.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,21 @@
+package com.filipedevs.api.performance;
+
+import java.time.Duration;
+
+/**
+ * Arrival rate and durations of one load test scenario. Every value can be overridden from the command line,
+ * e.g. {@code -Dperformance.get.rate=1000 -Dperformance.get.duration=PT1M}.
+ */
+record LoadProfile(String scenario, int requestsPerSecond, Duration warmUp, Duration duration) {
+
+    static LoadProfile of(String scenario, int defaultRequestsPerSecond, Duration defaultDuration) {
+        String prefix = "performance." + scenario + ".";
+        return new LoadProfile(
+                scenario,
+                Integer.getInteger(prefix + "rate", defaultRequestsPerSecond),
+                Duration.parse(System.getProperty(prefix + "warmup",
+                        System.getProperty("performance.warmup", "PT10S"))),
+                Duration.parse(System.getProperty(prefix + "duration", defaultDuration.toString()))
+        );
+    }
+}
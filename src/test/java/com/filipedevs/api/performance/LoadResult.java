@@ -0,0 +1,49 @@
+package com.filipedevs.api.performance;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Properties;
+
+/**
+ * Latency percentiles (in milliseconds) and throughput (in requests per second) measured for one scenario.
+ */
+record LoadResult(String scenario,
+                  long requests,
+                  long errors,
+                  double p50,
+                  double p90,
+                  double p99,
+                  double p999,
+                  double max,
+                  double throughput) {
+
+    static LoadResult of(String scenario, Histogram latenciesMicros, long errors, long elapsedNanos) {
+        long requests = latenciesMicros.getTotalCount() + errors;
+        return new LoadResult(
+                scenario,
+                requests,
+                errors,
+                millis(latenciesMicros.getValueAtPercentile(50)),
+                millis(latenciesMicros.getValueAtPercentile(90)),
+                millis(latenciesMicros.getValueAtPercentile(99)),
+                millis(latenciesMicros.getValueAtPercentile(99.9)),
+                millis(latenciesMicros.getMaxValue()),
+                latenciesMicros.getTotalCount() * 1_000_000_000d / elapsedNanos
+        );
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000d;
+    }
+
+    void writeTo(Properties properties) {
+        properties.setProperty(scenario + ".p99", String.valueOf(p99));
+        properties.setProperty(scenario + ".throughput", String.valueOf(throughput));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d requests, %d errors, p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms, %.1f req/s",
+                scenario, requests, errors, p50, p90, p99, p999, max, throughput);
+    }
+}
@@ -0,0 +1,63 @@
+package com.filipedevs.api.performance;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Grows the hash partitioned customer table step by step and measures insert and lookup latency at each size.
+ * The p99 at the largest size must stay within {@code performance.flatness.tolerance} of the p99 at the smallest.
+ * The results are only recorded, not compared with a baseline: the sizes vary with
+ * {@code -Dperformance.partitioned.sizes} and the flatness is what this test checks.
+ */
+@ActiveProfiles("partitioned")
+class PartitionedCustomerLoadTest extends AbstractLoadTest {
+
+    private static final long[] TABLE_SIZES = Arrays.stream(
+                    System.getProperty("performance.partitioned.sizes", "100000,1000000,5000000").split(","))
+            .mapToLong(size -> Long.parseLong(size.trim()))
+            .toArray();
+
+    private static final double FLATNESS_TOLERANCE =
+            Double.parseDouble(System.getProperty("performance.flatness.tolerance", "0.5"));
+
+    @Test
+    void insertAndLookupLatencyStayFlatAsTableGrows() throws Exception {
+        List<LoadResult> inserts = new ArrayList<>();
+        List<LoadResult> lookups = new ArrayList<>();
+        long seeded = 0;
+        for (long size : TABLE_SIZES) {
+            long[] ids = seeder.seed(seeded, size - seeded);
+            seeded = size;
+
+            LoadResult insert = loadGenerator.run(
+                    LoadProfile.of("partitioned.insert." + size, 200, Duration.ofSeconds(30)),
+                    requests::create);
+            LoadResult lookup = loadGenerator.run(
+                    LoadProfile.of("partitioned.get." + size, 500, Duration.ofSeconds(30)),
+                    () -> requests.get(ThreadLocalRandom.current().nextLong(ids[0], ids[1] + 1)));
+            baseline.record(insert);
+            baseline.record(lookup);
+            inserts.add(insert);
+            lookups.add(lookup);
+        }
+
+        assertFlat(inserts);
+        assertFlat(lookups);
+    }
+
+    private static void assertFlat(List<LoadResult> results) {
+        LoadResult smallest = results.get(0);
+        LoadResult largest = results.get(results.size() - 1);
+        assertThat(largest.p99())
+                .as("%s p99 latency (ms) compared to %s", largest.scenario(), smallest.scenario())
+                .isLessThanOrEqualTo(smallest.p99() * (1 + FLATNESS_TOLERANCE));
+    }
+}
@@ -0,0 +1,131 @@
+package com.filipedevs.api.performance;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares load test results with the numbers stored in {@code performance/baseline.properties}.
+ * Every run writes its own numbers to {@code target/performance/results.properties} in the same format,
+ * so a new baseline is recorded by running with {@code -Dperformance.record=true} and copying that file over
+ * the stored one. A scenario without stored numbers is only recorded, with a warning, until its numbers are copied.
+ */
+@Slf4j
+class PerformanceBaseline {
+
+    private static final String BASELINE_RESOURCE = "/performance/baseline.properties";
+    private static final Path RESULTS_FILE = Path.of("target", "performance", "results.properties");
+
+    // -Dperformance.record=true measures without comparing, to record a new baseline
+    private static final boolean RECORD = Boolean.getBoolean("performance.record");
+
+    private final Properties baseline;
+    private final double p99Tolerance;
+    private final double throughputTolerance;
+
+    private PerformanceBaseline(Properties baseline) {
+        this.baseline = baseline;
+        this.p99Tolerance = tolerance("p99");
+        this.throughputTolerance = tolerance("throughput");
+    }
+
+    static PerformanceBaseline load() {
+        Properties properties = new Properties();
+        try (InputStream inputStream = PerformanceBaseline.class.getResourceAsStream(BASELINE_RESOURCE)) {
+            if (inputStream != null) {
+                properties.load(inputStream);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PerformanceBaseline(properties);
+    }
+
+    /**
+     * Records the result and fails when it regressed compared to the stored baseline of its scenario.
+     */
+    void verify(LoadResult result) {
+        record(result);
+
+        if (RECORD) {
+            log.info("Recording scenario {}, no regression check", result.scenario());
+            return;
+        }
+        String p99 = baseline.getProperty(result.scenario() + ".p99");
+        String throughput = baseline.getProperty(result.scenario() + ".throughput");
+        if (p99 == null || throughput == null) {
+            log.warn("No baseline stored for scenario {}, its result is only recorded. Copy {} to src/test/resources{}"
+                    + " to check it for regressions from now on", result.scenario(), RESULTS_FILE, BASELINE_RESOURCE);
+            return;
+        }
+        assertThat(result.p99())
+                .as("%s p99 latency (ms) compared to the baseline", result.scenario())
+                .isLessThanOrEqualTo(Double.parseDouble(p99) * (1 + p99Tolerance));
+        assertThat(result.throughput())
+                .as("%s throughput (req/s) compared to the baseline", result.scenario())
+                .isGreaterThanOrEqualTo(Double.parseDouble(throughput) * (1 - throughputTolerance));
+    }
+
+    /**
+     * Records the result without comparing it, for scenarios judged by the test itself.
+     */
+    void record(LoadResult result) {
+        log.info("{}", result);
+        store(result);
+        assertThat(result.errors()).as("%s errors", result.scenario()).isZero();
+    }
+
+    /**
+     * @return the results of every scenario starting with {@code prefix} recorded so far, including earlier runs
+     * that did not clean the target directory
+     */
+    static Properties results(String prefix) {
+        Properties results = new Properties();
+        Properties filtered = new Properties();
+        try {
+            if (Files.exists(RESULTS_FILE)) {
+                try (InputStream inputStream = Files.newInputStream(RESULTS_FILE)) {
+                    results.load(inputStream);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        results.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(prefix))
+                .forEach(key -> filtered.setProperty(key, results.getProperty(key)));
+        return filtered;
+    }
+
+    private double tolerance(String metric) {
+        String key = "tolerance." + metric;
+        return Double.parseDouble(System.getProperty("performance." + key, baseline.getProperty(key, "0.2")));
+    }
+
+    private static synchronized void store(LoadResult result) {
+        Properties results = new Properties();
+        try {
+            Files.createDirectories(RESULTS_FILE.getParent());
+            if (Files.exists(RESULTS_FILE)) {
+                try (InputStream inputStream = Files.newInputStream(RESULTS_FILE)) {
+                    results.load(inputStream);
+                }
+            }
+            result.writeTo(results);
+            try (OutputStream outputStream = Files.newOutputStream(RESULTS_FILE)) {
+                results.store(outputStream, "Load test results, copy to src/test/resources" + BASELINE_RESOURCE
+                        + " to make them the new baseline");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
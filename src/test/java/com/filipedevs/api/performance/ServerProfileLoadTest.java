@@ -0,0 +1,112 @@
+package com.filipedevs.api.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the small customer calls on the server configuration under test, results are stored per
+ * container and protocol (e.g. {@code server.tomcat.http_2.get}) so the configurations can be compared.
+ * After each run the results of every configuration measured so far are logged side by side.
+ * A configuration is only checked for regressions once its numbers are stored in the baseline.
+ * <p>
+ * Run it once per configuration, without {@code clean} in between so the earlier results stay in {@code target}:
+ * <pre>
+ * ./mvnw test -Pperformance -Dtest=ServerProfileLoadTest
+ * ./mvnw test -Pperformance -Dtest=ServerProfileLoadTest -Dspring.profiles.active=http2 -Dperformance.http.version=HTTP_2
+ * ./mvnw test -Pperformance -Dtest=ServerProfileLoadTest -Dspring.profiles.active=http2 -Dserver.container=undertow
+ * ./mvnw test -Pperformance -Dtest=ServerProfileLoadTest -Dspring.profiles.active=http2 -Dserver.container=jetty
+ * </pre>
+ */
+@Slf4j
+class ServerProfileLoadTest extends AbstractLoadTest {
+
+    private static final long CUSTOMERS = Long.getLong("performance.server.customers", 10_000);
+
+    private static final HttpClient.Version HTTP_VERSION =
+            HttpClient.Version.valueOf(System.getProperty("performance.http.version", "HTTP_1_1"));
+
+    @Autowired
+    ServletWebServerApplicationContext applicationContext;
+
+    private String configuration;
+
+    private long[] ids;
+
+    @BeforeAll
+    void seedCustomers() throws Exception {
+        ids = seeder.seed(CUSTOMERS);
+        // TomcatWebServer -> tomcat, UndertowServletWebServer -> undertow, JettyWebServer -> jetty
+        String container = applicationContext.getWebServer().getClass().getSimpleName()
+                .replace("ServletWebServer", "")
+                .replace("WebServer", "")
+                .toLowerCase(Locale.ROOT);
+        configuration = "server." + container + "." + HTTP_VERSION.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected HttpClient.Version httpVersion() {
+        return HTTP_VERSION;
+    }
+
+    @Test
+    void getCustomer() {
+        baseline.verify(loadGenerator.run(
+                LoadProfile.of(configuration + ".get", 2000, Duration.ofSeconds(60)),
+                () -> requests.get(ThreadLocalRandom.current().nextLong(ids[0], ids[1] + 1))));
+    }
+
+    @Test
+    void createCustomer() {
+        baseline.verify(loadGenerator.run(
+                LoadProfile.of(configuration + ".create", 500, Duration.ofSeconds(30)),
+                requests::create));
+    }
+
+    @AfterAll
+    void logComparison() {
+        log.info("Server configurations measured so far:\n{}", comparison(PerformanceBaseline.results("server.")));
+    }
+
+    /**
+     * One line per configuration, one column per scenario and metric, from keys like
+     * {@code server.tomcat.http_2.get.p99}.
+     */
+    private static String comparison(Properties results) {
+        Map<String, Map<String, String>> configurations = new TreeMap<>();
+        for (String key : results.stringPropertyNames()) {
+            String[] parts = key.split("\\.");
+            if (parts.length != 5) {
+                continue;
+            }
+            configurations.computeIfAbsent(parts[1] + "." + parts[2], configuration -> new TreeMap<>())
+                    .put(parts[3] + " " + parts[4], results.getProperty(key));
+        }
+        String[] columns = {"get p99", "get throughput", "create p99", "create throughput"};
+        StringBuilder table = new StringBuilder(String.format("%-20s", "configuration"));
+        for (String column : columns) {
+            table.append(String.format("%20s", column));
+        }
+        configurations.forEach((configuration, values) -> {
+            table.append(String.format("%n%-20s", configuration));
+            for (String column : columns) {
+                String value = values.get(column);
+                table.append(value == null
+                        ? String.format("%20s", "-")
+                        : String.format("%20.2f", Double.parseDouble(value)));
+            }
+        });
+        return table.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.filipedevs.api.warmup;
+
+import com.filipedevs.api.cache.CustomerCache;
+import com.filipedevs.api.customer.Customer;
+import com.filipedevs.api.customer.CustomerController;
+import com.filipedevs.api.customer.CustomerRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import javax.sql.DataSource;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpRunnerTest {
+
+    WarmUpRunner underTest;
+
+    WarmUpProperties properties;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    DataSource dataSource;
+
+    @Mock
+    Connection connection;
+
+    @Mock
+    CustomerRepository customerRepository;
+
+    @Mock
+    CustomerCache customerCache;
+
+    @Mock
+    ApplicationContext applicationContext;
+
+    @Mock
+    LoggingSystem loggingSystem;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WarmUpProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new WarmUpRunner(properties, dataSource, customerRepository, customerCache,
+                meterRegistry, applicationContext, loggingSystem);
+    }
+
+    @Test
+    void shouldWarmUpPoolStatementsAndCache() throws Exception {
+        // given
+        Customer customer = new Customer(5L, "Filipe", "filipe@gmail.com", "BE");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(customerRepository.findByOrderByIdDesc(any(Limit.class))).thenReturn(List.of(customer));
+        // when
+        underTest.warmUp(OptionalInt.empty());
+        // then
+        // the connection borrowed to fill the pool goes back to it
+        verify(connection).close();
+        verify(customerRepository, times(properties.getStatementRounds())).findById(-1L);
+        verify(customerRepository, times(properties.getStatementRounds())).findByEmail("");
+        verify(customerCache).fill(customer);
+        assertThat(meterRegistry.get("customer.warmup.duration").tag("phase", "total").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldStillFinishWhenDatabaseIsUnavailable() throws Exception {
+        // given
+        when(dataSource.getConnection()).thenThrow(new SQLException("down"));
+        when(customerRepository.findById(any())).thenThrow(new IllegalStateException("down"));
+        when(customerRepository.findByOrderByIdDesc(any(Limit.class))).thenThrow(new IllegalStateException("down"));
+        // when
+        underTest.warmUp(OptionalInt.empty());
+        // then
+        // a failed warm-up must not keep the application from starting
+        verifyNoInteractions(customerCache);
+        assertThat(meterRegistry.get("customer.warmup.duration").tag("phase", "total").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotWarmUpWhenDisabled() throws Exception {
+        // given
+        properties.setEnabled(false);
+        // when
+        underTest.run(new DefaultApplicationArguments());
+        // then
+        verifyNoInteractions(dataSource, customerRepository, customerCache);
+    }
+
+    @Test
+    void shouldSendRequestsWithoutRealCustomerData() throws Exception {
+        // given
+        // a customer without email used to abort the request phase
+        Customer customer = new Customer(5L, "Filipe", null, "BE");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(customerRepository.findByOrderByIdDesc(any(Limit.class))).thenReturn(List.of(customer));
+        properties.setRequests(10);
+        List<String> requests = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " " + body);
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+        });
+        server.start();
+        // when
+        try {
+            underTest.warmUp(OptionalInt.of(server.getAddress().getPort()));
+        } finally {
+            server.stop(0);
+        }
+        // then
+        assertThat(requests).hasSize(10);
+        assertThat(requests).filteredOn(request -> request.startsWith("POST"))
+                .hasSize(2)
+                .allMatch(request -> request.contains("warm-up@example.invalid"));
+        assertThat(requests).filteredOn(request -> request.startsWith("GET"))
+                .anyMatch(request -> request.contains("/api/v1/customers/5"));
+        // the loggers are quiet only while the warm-up requests run
+        verify(loggingSystem).setLogLevel(CustomerController.class.getName(), LogLevel.ERROR);
+        verify(loggingSystem).setLogLevel(CustomerController.class.getName(), null);
+    }
+}